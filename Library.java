@@ -1,190 +1,1396 @@
 import models.*;
 import data.*;
+import index.CatalogIndex;
+import index.CompletionIndex;
+import index.DueDateIndex;
+import index.HoldQueues;
+import index.InvertedIndex;
+import index.LoanIndex;
+import index.QueryCache;
 import interfaces.Searchable;
+import metrics.Metrics;
+import metrics.OperationStats;
+import services.CatalogImporter;
+import services.CirculationAnalytics;
+import services.DailyScheduler;
+import services.FineAccrualEngine;
+import util.StripedLocks;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.nio.file.Paths;
+import java.time.Clock;
 import java.time.LocalDate;
+import java.time.LocalTime;
 import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashSet;
 import java.util.List;
-import java.util.Optional;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Predicate;
 
 /**
  * The core engine of the system. This class acts as a facade,
  * managing all data and business logic, and uses DataManager for persistence.
+ *
+ * All operations are safe to call from many threads. Transactions on the same item are
+ * serialized by a striped lock keyed on the item ID, so unrelated transactions never contend;
+ * status transitions are atomic compare-and-set operations on the item itself.
  */
 public class Library {
 
+    private static final int LOCK_STRIPES = 1024;
+    private static final int LOAN_PERIOD_DAYS = 14;
+    // Days a returned item stays set aside for the next member in its hold queue
+    private static final int HOLD_PICKUP_DAYS = 3;
+    // Shortly after midnight, so the pass charges for the day that just ended
+    private static final LocalTime ACCRUAL_TIME = LocalTime.of(0, 5);
+    // Records fetched per page when a whole listing is printed
+    private static final int LISTING_PAGE_SIZE = 500;
+    // Distinct queries whose results are kept, and the longest result worth keeping
+    private static final int SEARCH_CACHE_CAPACITY = 1024;
+    private static final int SEARCH_CACHE_MAX_RESULTS = 5000;
+
+    private static final OperationStats ADD_ITEM_STATS = Metrics.operation("Library.addLibraryItem");
+    private static final OperationStats REGISTER_MEMBER_STATS = Metrics.operation("Library.registerMember");
+    private static final OperationStats FIND_ITEM_STATS = Metrics.operation("Library.findItemById");
+    private static final OperationStats FIND_MEMBER_STATS = Metrics.operation("Library.findMemberById");
+    private static final OperationStats SEARCH_STATS = Metrics.operation("Library.search");
+    private static final OperationStats COMPLETE_STATS = Metrics.operation("Library.complete");
+    private static final OperationStats CHECKOUT_STATS = Metrics.operation("Library.checkout");
+    private static final OperationStats CHECKIN_STATS = Metrics.operation("Library.checkin");
+    private static final OperationStats BORROW_BATCH_STATS = Metrics.operation("Library.borrowItems");
+    private static final OperationStats RETURN_BATCH_STATS = Metrics.operation("Library.returnItems");
+    private static final OperationStats PLACE_HOLD_STATS = Metrics.operation("Library.placeHold");
+    private static final OperationStats CANCEL_HOLD_STATS = Metrics.operation("Library.cancelHold");
+    private static final OperationStats ACCRUE_FINES_STATS = Metrics.operation("Library.accrueFines");
+    private static final OperationStats EXPIRE_HOLDS_STATS = Metrics.operation("Library.expireHolds");
+    private static final OperationStats IMPORT_STATS = Metrics.operation("Library.importCatalog");
+    // Rejected rows listed in an import summary; the rest are only counted
+    private static final int IMPORT_REJECTIONS_SHOWN = 20;
+
     private List<LibraryItem> inventory;
     private List<User> users;
-    private List<Loan> activeLoans;
-    private List<Fine> outstandingFines;
+    private final LoanIndex activeLoans = new LoanIndex();
+    private final LoanLimits loanLimits;
+    private final CirculationAnalytics analytics;
     private DataManager dataManager;
+    private FineLedger fineLedger;
+
+    private final StripedLocks itemLocks = new StripedLocks(LOCK_STRIPES);
+    // Transactions hold the read side; compaction takes the write side for a consistent snapshot
+    private final ReentrantReadWriteLock stateLock = new ReentrantReadWriteLock();
+
+    // Primary-key indexes, keyed by upper-cased ID for case-insensitive lookups
+    private Map<String, LibraryItem> itemsById;
+    private Map<String, Member> membersById;
+    private InvertedIndex<Searchable> searchIndex;
+    private final CatalogIndex catalogIndex = new CatalogIndex();
+    private final CompletionIndex completionIndex = new CompletionIndex();
+    private final QueryCache<Searchable> searchCache = new QueryCache<>(SEARCH_CACHE_CAPACITY, SEARCH_CACHE_MAX_RESULTS);
+    private DueDateIndex dueDateIndex;
+    private final HoldQueues holdQueues = new HoldQueues();
+    private final CatalogImporter catalogImporter = new CatalogImporter();
+
+    private final Clock clock;
+    private final FineAccrualEngine accrualEngine;
+    private DailyScheduler accrualScheduler;
 
     public Library() {
-        this.dataManager = new DataManager();
-        this.outstandingFines = new ArrayList<>(); // Fines are calculated at runtime
+        this(Clock.systemDefaultZone());
+    }
+
+    public Library(Clock clock) {
+        this(new DataManager(), clock);
+    }
+
+    /**
+     * Creates a library backed by the given data manager, e.g. one pointing at another data directory.
+     */
+    public Library(DataManager dataManager, Clock clock) {
+        this.clock = clock;
+        this.accrualEngine = new FineAccrualEngine(clock);
+        this.analytics = new CirculationAnalytics(clock);
+        this.dataManager = dataManager;
         
-        // Load all data from files
-        this.inventory = dataManager.loadLibraryItems();
-        this.users = dataManager.loadUsers();
-        this.activeLoans = dataManager.loadLoans(this.inventory, this.users);
+        // Load all data from the latest snapshot
+        Snapshot snapshot = dataManager.loadSnapshot();
+        this.inventory = Collections.synchronizedList(snapshot.getItems());
+        this.users = Collections.synchronizedList(snapshot.getUsers());
+        snapshot.getLoans().forEach(activeLoans::add);
+        this.loanLimits = dataManager.loadLoanLimits();
+
+        // Build the primary-key indexes once, so lookups don't scan the lists
+        this.itemsById = new ConcurrentHashMap<>();
+        this.membersById = new ConcurrentHashMap<>();
+        this.searchIndex = new InvertedIndex<>();
+        inventory.forEach(this::indexItem);
+        users.forEach(this::indexUser);
+        this.dueDateIndex = new DueDateIndex();
+        activeLoans.all().forEach(dueDateIndex::add);
+        dataManager.loadHolds(itemsById, membersById).forEach(holdQueues::add);
 
-        // Sync static ID counters to prevent duplicates after loading
-        LibraryItem.syncNextId(inventory);
-        Member.syncNextId(users);
+        // Apply any mutations journaled since the last snapshot, then fold them into it
+        int replayed = dataManager.replayJournal(new JournalReplayer());
+        if (replayed > 0) {
+            compact();
+        }
+        completionIndex.compact();
+
+        // Rebuild member balances from the fine ledger
+        this.fineLedger = dataManager.getFineLedger();
+        fineLedger.load(this::lookupMember);
+
+        // New IDs come from ranges leased through the data directory; the loaded data is only
+        // scanned to seed an allocation record that does not exist yet
+        LibraryItem.setIdGenerator(dataManager.idGenerator("items", () -> {
+            synchronized (inventory) {
+                return LibraryItem.highestIdNumber(inventory) + 1;
+            }
+        }));
+        Member.setIdGenerator(dataManager.idGenerator("members", () -> {
+            synchronized (users) {
+                return Member.highestIdNumber(users) + 1;
+            }
+        }));
     }
 
     // --- Item Management ---
     public void addLibraryItem(LibraryItem item) {
-        inventory.add(item);
-        dataManager.saveLibraryItems(inventory);
+        long start = System.nanoTime();
+        stateLock.readLock().lock();
+        try {
+            inventory.add(item);
+            indexItem(item);
+            dataManager.logItemAdded(item);
+        } finally {
+            stateLock.readLock().unlock();
+        }
+        compactIfNeeded();
+        ADD_ITEM_STATS.record(start);
         System.out.println("Successfully added: " + item.getTitle());
     }
 
     public LibraryItem findItemById(String itemId) {
-        return inventory.stream()
-            .filter(item -> item.getItemId().equalsIgnoreCase(itemId))
-            .findFirst()
-            .orElse(null);
+        long start = System.nanoTime();
+        LibraryItem item = lookupItem(itemId);
+        FIND_ITEM_STATS.record(start);
+        return item;
+    }
+
+    private LibraryItem lookupItem(String itemId) {
+        if (itemId == null) return null;
+        return itemsById.get(key(itemId));
+    }
+
+    /**
+     * Returns every copy of the book with the given ISBN; hyphens and spaces are ignored.
+     */
+    public List<Book> findBooksByIsbn(String isbn) {
+        return catalogIndex.findByIsbn(isbn);
+    }
+
+    /**
+     * Returns the books and articles by the given author, optionally only those in one status.
+     */
+    public List<LibraryItem> findItemsByAuthor(String author, ItemStatus status) {
+        return catalogIndex.findByAuthor(author, status);
+    }
+
+    /**
+     * Counts the items of a type in a status (null for either means any) without scanning the inventory.
+     */
+    public int countItems(Class<? extends LibraryItem> type, ItemStatus status) {
+        return catalogIndex.count(type, status);
+    }
+
+    /**
+     * Returns every item of a type in a status (null for either means any), in ID order.
+     */
+    public List<LibraryItem> findItems(Class<? extends LibraryItem> type, ItemStatus status) {
+        return catalogIndex.items(type, status);
+    }
+
+    public void printInventorySummary() {
+        PrintWriter out = consoleWriter();
+        out.println("\n--- Inventory Summary ---");
+        out.printf("%-10s", "");
+        for (ItemStatus status : ItemStatus.values()) {
+            out.printf("%10s", status);
+        }
+        out.printf("%10s%n", "TOTAL");
+        for (Class<? extends LibraryItem> type : Arrays.asList(Book.class, Magazine.class, Article.class, null)) {
+            out.printf("%-10s", type == null ? "All" : type.getSimpleName());
+            for (ItemStatus status : ItemStatus.values()) {
+                out.printf("%10d", catalogIndex.count(type, status));
+            }
+            out.printf("%10d%n", catalogIndex.count(type, null));
+        }
+        out.flush();
+    }
+
+    /**
+     * Returns up to pageSize items in the order they were added, starting at the cursor
+     * (null for the first page), optionally restricted to one status and/or item type.
+     * The inventory only ever grows, so a cursor stays valid while items are being added.
+     */
+    public Page<LibraryItem> getItemsPage(String cursor, int pageSize, ItemStatus status, Class<? extends LibraryItem> type) {
+        return page(inventory, cursor, pageSize, LibraryItem.class,
+            item -> (status == null || item.getStatus() == status) && (type == null || type.isInstance(item)));
     }
 
     public void listAllItems() {
-        if (inventory.isEmpty()) {
-            System.out.println("The library inventory is empty.");
-            return;
+        PrintWriter out = consoleWriter();
+        Page<LibraryItem> page = getItemsPage(null, LISTING_PAGE_SIZE, null, null);
+        if (page.getItems().isEmpty()) {
+            out.println("The library inventory is empty.");
         }
-        inventory.forEach(item -> {
-            item.display();
-            System.out.println("--------------------");
-        });
+        while (true) {
+            printItems(page.getItems(), out);
+            if (!page.hasMore()) break;
+            page = getItemsPage(page.getNextCursor(), LISTING_PAGE_SIZE, null, null);
+        }
+        out.flush();
+    }
+
+    public void printItems(List<LibraryItem> items, PrintWriter out) {
+        for (LibraryItem item : items) {
+            item.display(out);
+            out.println("--------------------");
+        }
+    }
+
+    // --- Bulk Import ---
+
+    public CatalogImporter.Result importCatalog(String filePath) {
+        return importCatalog(filePath, false);
+    }
+
+    /**
+     * Imports every valid row of an acquisitions file (see CatalogImporter for the format) and persists
+     * the catalog once at the end, instead of journaling each item. Prints a summary listing rejected rows.
+     * Books with a cataloged or repeated ISBN are imported as further copies, unless uniqueIsbns is set;
+     * then they are rejected, with the catalog checked under the write lock.
+     * Returns the result, or null if the file could not be read.
+     */
+    public CatalogImporter.Result importCatalog(String filePath, boolean uniqueIsbns) {
+        long start = System.nanoTime();
+
+        CatalogImporter.Result result;
+        try {
+            result = catalogImporter.importFile(Paths.get(filePath), uniqueIsbns);
+        } catch (IOException e) {
+            System.err.println("Error reading import file " + filePath + ": " + e.getMessage());
+            IMPORT_STATS.recordError();
+            IMPORT_STATS.record(start);
+            return null;
+        }
+
+        List<LibraryItem> items;
+        stateLock.writeLock().lock();
+        try {
+            if (uniqueIsbns) {
+                result = result.reject(item -> item instanceof Book && !catalogIndex.findByIsbn(((Book) item).getIsbn()).isEmpty(),
+                    "ISBN already cataloged");
+            }
+            items = result.getItems();
+            inventory.addAll(items);
+            Set<SnapshotFile> touched = EnumSet.noneOf(SnapshotFile.class);
+            for (LibraryItem item : items) {
+                itemsById.put(key(item.getItemId()), item);
+                catalogIndex.add(item);
+                touched.add(SnapshotFile.of(item));
+            }
+            searchIndex.addAll(items, Searchable::getSearchableFields);
+            // Too many new documents to check each cached query against
+            searchCache.clear();
+            List<String> phrases = new ArrayList<>();
+            items.forEach(item -> phrases.addAll(completionPhrases(item)));
+            completionIndex.addAll(phrases);
+            dataManager.markDirty(touched);
+            compact();
+        } finally {
+            stateLock.writeLock().unlock();
+        }
+        IMPORT_STATS.record(start);
+
+        System.out.println("Imported " + items.size() + " of " + result.getRowCount() + " rows in "
+            + (System.nanoTime() - start) / 1_000_000 + " ms.");
+        List<CatalogImporter.Rejection> rejections = result.getRejections();
+        if (!rejections.isEmpty()) {
+            System.out.println(rejections.size() + " rows were rejected:");
+            rejections.stream().limit(IMPORT_REJECTIONS_SHOWN)
+                .forEach(rejection -> System.out.println("  Row " + rejection.getRow() + ": " + rejection.getReason()));
+            if (rejections.size() > IMPORT_REJECTIONS_SHOWN) {
+                System.out.println("  ... and " + (rejections.size() - IMPORT_REJECTIONS_SHOWN) + " more.");
+            }
+        }
+        return result;
     }
 
     // --- Member Management ---
     public void registerMember(Member member) {
-        users.add(member);
-        dataManager.saveUsers(users);
+        long start = System.nanoTime();
+        stateLock.readLock().lock();
+        try {
+            users.add(member);
+            indexUser(member);
+            dataManager.logMemberRegistered(member);
+        } finally {
+            stateLock.readLock().unlock();
+        }
+        compactIfNeeded();
+        REGISTER_MEMBER_STATS.record(start);
         System.out.println("Successfully registered member: " + member.getName() + " with ID " + member.getMemberId());
     }
 
     public Member findMemberById(String memberId) {
-        return users.stream()
-            .filter(user -> user instanceof Member && ((Member) user).getMemberId().equalsIgnoreCase(memberId))
-            .map(user -> (Member) user)
-            .findFirst()
-            .orElse(null);
+        long start = System.nanoTime();
+        Member member = lookupMember(memberId);
+        FIND_MEMBER_STATS.record(start);
+        return member;
+    }
+
+    private Member lookupMember(String memberId) {
+        if (memberId == null) return null;
+        return membersById.get(key(memberId));
+    }
+
+    /**
+     * Returns up to pageSize members in registration order, starting at the cursor (null for the first page).
+     */
+    public Page<Member> getMembersPage(String cursor, int pageSize) {
+        return page(users, cursor, pageSize, Member.class, member -> true);
     }
 
     public void listAllMembers() {
-        boolean found = false;
-        for (User user : users) {
-            if (user instanceof Member) {
-                ((Member) user).display();
-                System.out.println("--------------------");
-                found = true;
-            }
+        PrintWriter out = consoleWriter();
+        Page<Member> page = getMembersPage(null, LISTING_PAGE_SIZE);
+        if (page.getItems().isEmpty()) {
+            out.println("No members have been registered.");
         }
-        if (!found) {
-            System.out.println("No members have been registered.");
+        while (true) {
+            printMembers(page.getItems(), out);
+            if (!page.hasMore()) break;
+            page = getMembersPage(page.getNextCursor(), LISTING_PAGE_SIZE);
+        }
+        out.flush();
+    }
+
+    public void printMembers(List<Member> members, PrintWriter out) {
+        for (Member member : members) {
+            member.display(out);
+            out.println("--------------------");
         }
     }
 
     // --- Loan Management ---
     public void borrowItem(String memberId, String itemId) {
-        Member member = findMemberById(memberId);
-        if (member == null) {
-            System.out.println("Error: No member found with ID " + memberId);
+        TransactionResult result = checkout(memberId, itemId);
+        if (!result.isSuccess()) {
+            System.out.println("Error: " + result.getMessage());
             return;
         }
+        System.out.println(result.getMessage());
+        System.out.println("Due Date: " + result.getLoan().getDueDate());
+    }
+
+    /**
+     * Loans an item to a member and reports the outcome without printing anything.
+     */
+    public TransactionResult checkout(String memberId, String itemId) {
+        long start = System.nanoTime();
+        return recorded(CHECKOUT_STATS, start, checkoutItem(memberId, itemId));
+    }
+
+    private TransactionResult checkoutItem(String memberId, String itemId) {
+        Member member = lookupMember(memberId);
+        if (member == null) {
+            return TransactionResult.failure("No member found with ID " + memberId);
+        }
 
-        LibraryItem item = findItemById(itemId);
+        LibraryItem item = lookupItem(itemId);
         if (item == null) {
-            System.out.println("Error: No item found with ID " + itemId);
+            return TransactionResult.failure("No item found with ID " + itemId);
+        }
+
+        Loan newLoan;
+        Lock itemLock = itemLocks.get(key(item.getItemId()));
+        stateLock.readLock().lock();
+        itemLock.lock();
+        try {
+            MutationLog.Batch batch = new MutationLog.Batch();
+            LocalDate borrowDate = accrualEngine.today();
+            expireHoldIfDue(item, borrowDate, batch);
+            String rejection = checkoutRejection(member, item);
+            if (rejection == null && !activeLoans.reserve(member, loanLimits.limitFor(member))) {
+                rejection = limitReached(member);
+            }
+            if (rejection != null) {
+                dataManager.logBatch(batch);
+                return TransactionResult.failure(rejection);
+            }
+            claimForCheckout(item, batch);
+
+            LocalDate dueDate = borrowDate.plusDays(LOAN_PERIOD_DAYS);
+            newLoan = new Loan(item, member, borrowDate, dueDate);
+            openLoan(newLoan);
+
+            dataManager.logBatch(batch.loanOpened(newLoan).statusChanged(item));
+        } finally {
+            itemLock.unlock();
+            stateLock.readLock().unlock();
+        }
+        // Analytics are updated outside the locks, so they never hold up other transactions
+        analytics.recordBorrow(newLoan);
+        compactIfNeeded();
+        return TransactionResult.success("Successfully loaned '" + item.getTitle() + "' to " + member.getName() + ".", newLoan, null);
+    }
+    
+    public void returnItem(String itemId) {
+        TransactionResult result = checkin(itemId);
+        if (!result.isSuccess()) {
+            System.out.println("Error: " + result.getMessage());
             return;
         }
+        Fine fine = result.getFine();
+        if (fine != null) {
+            long daysOverdue = ChronoUnit.DAYS.between(result.getLoan().getDueDate(), accrualEngine.today());
+            String alreadyCharged = fine.getAmount() < daysOverdue * FineAccrualEngine.DAILY_FINE ? " (earlier days were already charged)" : "";
+            System.out.println("Item is overdue by " + daysOverdue + " days. A fine of $" + String.format("%.2f", fine.getAmount()) + " has been assessed" + alreadyCharged + ".");
+        }
+        System.out.println(result.getMessage());
+        Hold next = holdQueues.peek(result.getLoan().getItem());
+        if (next != null && next.isReady()) {
+            System.out.println("Set aside for " + next.getMember().getName() + " (ID: " + next.getMember().getMemberId() + ") until " + next.getExpiresOn() + ".");
+        }
+    }
+
+    /**
+     * Closes the active loan on an item, assessing a fine if it is overdue, without printing anything.
+     */
+    public TransactionResult checkin(String itemId) {
+        long start = System.nanoTime();
+        return recorded(CHECKIN_STATS, start, checkinItem(itemId));
+    }
+
+    private TransactionResult checkinItem(String itemId) {
+        Loan loanToClose;
+        Fine newFine;
+        Lock itemLock = itemLocks.get(key(itemId));
+        stateLock.readLock().lock();
+        itemLock.lock();
+        try {
+            loanToClose = activeLoans.forItem(itemId);
+            if (loanToClose == null) {
+                return TransactionResult.failure("No active loan found for item ID " + itemId);
+            }
+
+            MutationLog.Batch batch = new MutationLog.Batch();
+            newFine = closeLoan(loanToClose, batch);
+            dataManager.logBatch(batch);
+            recordFine(newFine);
+        } finally {
+            itemLock.unlock();
+            stateLock.readLock().unlock();
+        }
+        analytics.recordReturn(loanToClose);
+        compactIfNeeded();
+        return TransactionResult.success("Successfully returned '" + loanToClose.getItem().getTitle() + "'.", loanToClose, newFine);
+    }
+
+    // Opens a loan against a slot reserved for its member
+    private void openLoan(Loan loan) {
+        activeLoans.addReserved(loan);
+        dueDateIndex.add(loan);
+    }
+
+    // Closes a loan whose item lock is held, recording the mutations in the batch.
+    // Returns the fine for any overdue days not already charged by the daily accrual, if any.
+    private Fine closeLoan(Loan loan, MutationLog.Batch batch) {
+        LibraryItem item = loan.getItem();
+        item.compareAndSetStatus(ItemStatus.BORROWED, ItemStatus.AVAILABLE);
 
+        LocalDate today = accrualEngine.today();
+        Fine newFine = accrualEngine.accrue(loan, today);
+
+        activeLoans.remove(loan);
+        dueDateIndex.remove(loan);
+        batch.loanClosed(loan);
+        // The next member in line gets the item before anyone else can borrow it
+        promoteNextHold(item, today, batch);
+        batch.statusChanged(item);
+        return newFine;
+    }
+
+    // Returns why the member cannot check out the item right now, or null if they can. Called with the item lock held.
+    private String checkoutRejection(Member member, LibraryItem item) {
+        if (item.getStatus() == ItemStatus.RESERVED) {
+            Hold head = holdQueues.peek(item);
+            if (head != null && head.getMember() == member) return null;
+            return "Item '" + item.getTitle() + "' is reserved for another member.";
+        }
         if (item.getStatus() != ItemStatus.AVAILABLE) {
-            System.out.println("Error: Item '" + item.getTitle() + "' is currently unavailable.");
+            return "Item '" + item.getTitle() + "' is currently unavailable.";
+        }
+        return null;
+    }
+
+    private String limitReached(Member member) {
+        return member.getName() + " already has the maximum of " + loanLimits.limitFor(member) + " items on loan.";
+    }
+
+    // Moves an item that passed checkoutRejection to BORROWED, fulfilling the hold it was set aside for, if any
+    private void claimForCheckout(LibraryItem item, MutationLog.Batch batch) {
+        if (item.compareAndSetStatus(ItemStatus.RESERVED, ItemStatus.BORROWED)) {
+            Hold fulfilled = holdQueues.peek(item);
+            holdQueues.remove(fulfilled);
+            batch.holdRemoved(fulfilled);
+        } else {
+            item.compareAndSetStatus(ItemStatus.AVAILABLE, ItemStatus.BORROWED);
+        }
+    }
+
+    // The journal entry advancing the accrual marker is written first: a crash between the two
+    // writes then loses a charge rather than charging the same days twice.
+    private void recordFine(Fine fine) {
+        if (fine != null) {
+            fineLedger.recordAssessment(fine);
+        }
+    }
+
+    // --- Batch Loan Management ---
+    /**
+     * Checks out many items at once. Every request is validated, the valid ones are applied,
+     * and all resulting mutations are persisted with a single journal write.
+     * With allOrNothing set, any failing request causes the whole batch to be rejected.
+     * Results are returned in request order.
+     */
+    public List<TransactionResult> borrowItems(List<LoanRequest> requests, boolean allOrNothing) {
+        long start = System.nanoTime();
+        return recorded(BORROW_BATCH_STATS, start, borrowBatch(requests, allOrNothing));
+    }
+
+    private List<TransactionResult> borrowBatch(List<LoanRequest> requests, boolean allOrNothing) {
+        TransactionResult[] results = new TransactionResult[requests.size()];
+        Member[] members = new Member[requests.size()];
+        LibraryItem[] items = new LibraryItem[requests.size()];
+        List<String> itemKeys = new ArrayList<>();
+        for (int i = 0; i < requests.size(); i++) {
+            LoanRequest request = requests.get(i);
+            members[i] = lookupMember(request.getMemberId());
+            items[i] = lookupItem(request.getItemId());
+            if (members[i] == null) {
+                results[i] = TransactionResult.failure("No member found with ID " + request.getMemberId());
+            } else if (items[i] == null) {
+                results[i] = TransactionResult.failure("No item found with ID " + request.getItemId());
+            } else {
+                itemKeys.add(key(items[i].getItemId()));
+            }
+        }
+
+        List<Lock> locks = itemLocks.getAll(itemKeys);
+        stateLock.readLock().lock();
+        locks.forEach(Lock::lock);
+        try {
+            MutationLog.Batch batch = new MutationLog.Batch();
+            LocalDate borrowDate = accrualEngine.today();
+            for (int i = 0; i < results.length; i++) {
+                if (results[i] == null) expireHoldIfDue(items[i], borrowDate, batch);
+            }
+
+            // Validate against the locked state, treating items claimed earlier in the batch as taken,
+            // and reserve a loan slot for every request that passes
+            Set<LibraryItem> claimed = new HashSet<>();
+            boolean[] reserved = new boolean[results.length];
+            for (int i = 0; i < results.length; i++) {
+                if (results[i] != null) continue;
+                String rejection = checkoutRejection(members[i], items[i]);
+                if (rejection == null && claimed.contains(items[i])) {
+                    rejection = "Item '" + items[i].getTitle() + "' is currently unavailable.";
+                }
+                if (rejection == null && !activeLoans.reserve(members[i], loanLimits.limitFor(members[i]))) {
+                    rejection = limitReached(members[i]);
+                }
+                if (rejection != null) {
+                    results[i] = TransactionResult.failure(rejection);
+                } else {
+                    claimed.add(items[i]);
+                    reserved[i] = true;
+                }
+            }
+            if (allOrNothing && rejectIfAnyFailed(results)) {
+                for (int i = 0; i < results.length; i++) {
+                    if (reserved[i]) activeLoans.cancel(members[i]);
+                }
+                dataManager.logBatch(batch);
+                return Arrays.asList(results);
+            }
+
+            LocalDate dueDate = borrowDate.plusDays(LOAN_PERIOD_DAYS);
+            for (int i = 0; i < results.length; i++) {
+                if (results[i] != null) continue;
+                claimForCheckout(items[i], batch);
+                Loan newLoan = new Loan(items[i], members[i], borrowDate, dueDate);
+                openLoan(newLoan);
+                batch.loanOpened(newLoan).statusChanged(items[i]);
+                results[i] = TransactionResult.success("Successfully loaned '" + items[i].getTitle() + "' to " + members[i].getName() + ".", newLoan, null);
+            }
+            dataManager.logBatch(batch);
+        } finally {
+            locks.forEach(Lock::unlock);
+            stateLock.readLock().unlock();
+        }
+        for (TransactionResult result : results) {
+            if (result.isSuccess()) analytics.recordBorrow(result.getLoan());
+        }
+        compactIfNeeded();
+        return Arrays.asList(results);
+    }
+
+    /**
+     * Returns many items at once, persisting all resulting mutations with a single journal write.
+     * Each request's member must match the member the item is on loan to.
+     * With allOrNothing set, any failing request causes the whole batch to be rejected.
+     * Results are returned in request order.
+     */
+    public List<TransactionResult> returnItems(List<LoanRequest> requests, boolean allOrNothing) {
+        long start = System.nanoTime();
+        return recorded(RETURN_BATCH_STATS, start, returnBatch(requests, allOrNothing));
+    }
+
+    private List<TransactionResult> returnBatch(List<LoanRequest> requests, boolean allOrNothing) {
+        TransactionResult[] results = new TransactionResult[requests.size()];
+        List<String> itemKeys = new ArrayList<>();
+        for (LoanRequest request : requests) {
+            itemKeys.add(key(request.getItemId()));
+        }
+
+        List<Lock> locks = itemLocks.getAll(itemKeys);
+        stateLock.readLock().lock();
+        locks.forEach(Lock::lock);
+        try {
+            // A loan can only be closed by the first request for its item in the batch
+            Set<Loan> closing = new HashSet<>();
+            Loan[] loans = new Loan[requests.size()];
+            for (int i = 0; i < results.length; i++) {
+                LoanRequest request = requests.get(i);
+                loans[i] = activeLoans.forItem(request.getItemId());
+                if (loans[i] == null || closing.contains(loans[i])) {
+                    results[i] = TransactionResult.failure("No active loan found for item ID " + request.getItemId());
+                } else if (!loans[i].getMember().getMemberId().equalsIgnoreCase(request.getMemberId())) {
+                    results[i] = TransactionResult.failure("Item " + request.getItemId() + " is not on loan to member " + request.getMemberId());
+                } else {
+                    closing.add(loans[i]);
+                }
+            }
+            if (allOrNothing && rejectIfAnyFailed(results)) {
+                return Arrays.asList(results);
+            }
+
+            MutationLog.Batch batch = new MutationLog.Batch();
+            List<Fine> fines = new ArrayList<>();
+            for (int i = 0; i < results.length; i++) {
+                if (results[i] != null) continue;
+                Fine fine = closeLoan(loans[i], batch);
+                if (fine != null) fines.add(fine);
+                results[i] = TransactionResult.success("Successfully returned '" + loans[i].getItem().getTitle() + "'.", loans[i], fine);
+            }
+            dataManager.logBatch(batch);
+            fineLedger.recordAssessments(fines);
+        } finally {
+            locks.forEach(Lock::unlock);
+            stateLock.readLock().unlock();
+        }
+        for (TransactionResult result : results) {
+            if (result.isSuccess()) analytics.recordReturn(result.getLoan());
+        }
+        compactIfNeeded();
+        return Arrays.asList(results);
+    }
+
+    // Records a transaction's latency, counting it as an error if it failed
+    private static TransactionResult recorded(OperationStats stats, long start, TransactionResult result) {
+        stats.record(start);
+        if (!result.isSuccess()) stats.recordError();
+        return result;
+    }
+
+    // Records a batch's latency, counting it as an error if any request in it failed
+    private static List<TransactionResult> recorded(OperationStats stats, long start, List<TransactionResult> results) {
+        stats.record(start);
+        for (TransactionResult result : results) {
+            if (!result.isSuccess()) {
+                stats.recordError();
+                break;
+            }
+        }
+        return results;
+    }
+
+    // Marks every still-pending request as rejected if any request failed. Returns whether the batch was rejected.
+    private static boolean rejectIfAnyFailed(TransactionResult[] results) {
+        boolean anyFailed = false;
+        for (TransactionResult result : results) {
+            if (result != null && !result.isSuccess()) anyFailed = true;
+        }
+        if (!anyFailed) return false;
+        for (int i = 0; i < results.length; i++) {
+            if (results[i] == null) {
+                results[i] = TransactionResult.failure("Batch rejected because another request in it failed.");
+            }
+        }
+        return true;
+    }
+
+    public List<Loan> getActiveLoans() {
+        return new ArrayList<>(activeLoans.all());
+    }
+
+    /**
+     * Returns the member's active loans, without scanning the others.
+     */
+    public List<Loan> getMemberLoans(String memberId) {
+        return activeLoans.forMember(memberId);
+    }
+
+    public void listMemberLoans(String memberId) {
+        Member member = lookupMember(memberId);
+        if (member == null) {
+            System.out.println("Error: No member found with ID " + memberId);
             return;
         }
+        List<Loan> loans = activeLoans.forMember(memberId);
+        loans.sort((a, b) -> a.getDueDate().compareTo(b.getDueDate()));
+        int limit = loanLimits.limitFor(member);
+        PrintWriter out = consoleWriter();
+        out.println("\n--- Loans for " + member.getName() + " (" + loans.size()
+            + (limit == LoanLimits.UNLIMITED ? "" : " of " + limit) + ") ---");
+        if (loans.isEmpty()) out.println("No items on loan.");
+        printLoans(loans, out);
+        out.flush();
+    }
 
-        LocalDate borrowDate = LocalDate.now();
-        LocalDate dueDate = borrowDate.plusDays(14);
-        Loan newLoan = new Loan(item, member, borrowDate, dueDate);
-        activeLoans.add(newLoan);
-        item.setStatus(ItemStatus.BORROWED);
+    // --- Due Dates and Fine Accrual ---
+    /**
+     * Returns the loans that are past their due date, most overdue first.
+     */
+    public List<Loan> getOverdueLoans() {
+        return dueDateIndex.overdueAsOf(accrualEngine.today());
+    }
 
-        dataManager.saveLibraryItems(inventory);
-        dataManager.saveLoans(activeLoans);
-        System.out.println("Successfully loaned '" + item.getTitle() + "' to " + member.getName() + ".");
-        System.out.println("Due Date: " + dueDate);
+    /**
+     * Returns the loans falling due between today and the given number of days from now, soonest first.
+     */
+    public List<Loan> getLoansDueWithin(int days) {
+        LocalDate today = accrualEngine.today();
+        return dueDateIndex.dueBetween(today, today.plusDays(days));
+    }
+
+    /**
+     * Charges every overdue loan for the days elapsed since it was last charged, in one pass,
+     * and persists the new accrual markers with a single journal write. Returns the fines assessed.
+     */
+    public List<Fine> accrueFines() {
+        long start = System.nanoTime();
+        LocalDate today = accrualEngine.today();
+        List<Fine> assessed = new ArrayList<>();
+        MutationLog.Batch batch = new MutationLog.Batch();
+        stateLock.readLock().lock();
+        try {
+            for (Loan loan : dueDateIndex.overdueAsOf(today)) {
+                Lock itemLock = itemLocks.get(key(loan.getItem().getItemId()));
+                itemLock.lock();
+                try {
+                    // The loan may have been returned since the index was read
+                    if (!dueDateIndex.contains(loan)) continue;
+                    Fine fine = accrualEngine.accrue(loan, today);
+                    if (fine != null) {
+                        assessed.add(fine);
+                        batch.loanAccrued(loan);
+                    }
+                } finally {
+                    itemLock.unlock();
+                }
+            }
+            dataManager.logBatch(batch);
+            fineLedger.recordAssessments(assessed);
+        } finally {
+            stateLock.readLock().unlock();
+        }
+        compactIfNeeded();
+        ACCRUE_FINES_STATS.record(start);
+        return assessed;
+    }
+
+    /**
+     * Catches up on any missed fine accrual and hold expiry, then runs both daily in the background.
+     */
+    public void startDailyTasks() {
+        if (accrualScheduler != null) return;
+        runDailyTasks();
+        accrualScheduler = new DailyScheduler(clock, ACCRUAL_TIME, this::runDailyTasks);
+        accrualScheduler.start();
+    }
+
+    private void runDailyTasks() {
+        accrueFines();
+        expireHolds();
+    }
+
+    // --- Holds ---
+    /**
+     * Joins the member to the item's hold queue. Only items that are out or set aside can be held;
+     * when the item comes back it is reserved for the first member in the queue.
+     */
+    public TransactionResult placeHold(String memberId, String itemId) {
+        long start = System.nanoTime();
+        return recorded(PLACE_HOLD_STATS, start, enqueueHold(memberId, itemId));
+    }
+
+    private TransactionResult enqueueHold(String memberId, String itemId) {
+        Member member = lookupMember(memberId);
+        if (member == null) {
+            return TransactionResult.failure("No member found with ID " + memberId);
+        }
+
+        LibraryItem item = lookupItem(itemId);
+        if (item == null) {
+            return TransactionResult.failure("No item found with ID " + itemId);
+        }
+
+        Hold hold;
+        int position;
+        Lock itemLock = itemLocks.get(key(item.getItemId()));
+        stateLock.readLock().lock();
+        itemLock.lock();
+        try {
+            MutationLog.Batch batch = new MutationLog.Batch();
+            LocalDate today = accrualEngine.today();
+            expireHoldIfDue(item, today, batch);
+            String rejection = holdRejection(member, item);
+            if (rejection != null) {
+                dataManager.logBatch(batch);
+                return TransactionResult.failure(rejection);
+            }
+
+            hold = new Hold(item, member, today);
+            holdQueues.add(hold);
+            position = holdQueues.positionOf(hold);
+            dataManager.logBatch(batch.holdPlaced(hold));
+        } finally {
+            itemLock.unlock();
+            stateLock.readLock().unlock();
+        }
+        compactIfNeeded();
+        return TransactionResult.success("Hold placed on '" + item.getTitle() + "' for " + member.getName() + ". Position in queue: " + position + ".", null, null);
+    }
+
+    // Returns why the member cannot hold the item, or null if they can. Called with the item lock held.
+    private String holdRejection(Member member, LibraryItem item) {
+        if (item.getStatus() == ItemStatus.LOST) {
+            return "Item '" + item.getTitle() + "' is lost and cannot be held.";
+        }
+        if (item.getStatus() == ItemStatus.AVAILABLE) {
+            return "Item '" + item.getTitle() + "' is available; borrow it instead.";
+        }
+        if (holdQueues.find(item, member) != null) {
+            return member.getName() + " already has a hold on '" + item.getTitle() + "'.";
+        }
+        Loan loan = activeLoans.forItem(item.getItemId());
+        if (loan != null && loan.getMember() == member) {
+            return member.getName() + " already has '" + item.getTitle() + "' on loan.";
+        }
+        return null;
+    }
+
+    /**
+     * Removes the member from the item's hold queue. If the item was set aside for them,
+     * it passes to the next member in line.
+     */
+    public TransactionResult cancelHold(String memberId, String itemId) {
+        long start = System.nanoTime();
+        return recorded(CANCEL_HOLD_STATS, start, dequeueHold(memberId, itemId));
     }
-    
-    public void returnItem(String itemId) {
-        Optional<Loan> loanToCloseOpt = activeLoans.stream()
-            .filter(loan -> loan.getItem().getItemId().equalsIgnoreCase(itemId))
-            .findFirst();
 
-        if (!loanToCloseOpt.isPresent()) {
-            System.out.println("Error: No active loan found for item ID " + itemId);
+    private TransactionResult dequeueHold(String memberId, String itemId) {
+        Member member = lookupMember(memberId);
+        LibraryItem item = lookupItem(itemId);
+        if (member == null || item == null) {
+            return TransactionResult.failure("No hold found for member " + memberId + " on item " + itemId);
+        }
+
+        Lock itemLock = itemLocks.get(key(item.getItemId()));
+        stateLock.readLock().lock();
+        itemLock.lock();
+        try {
+            Hold hold = holdQueues.find(item, member);
+            if (hold == null) {
+                return TransactionResult.failure("No hold found for member " + memberId + " on item " + itemId);
+            }
+            MutationLog.Batch batch = new MutationLog.Batch();
+            releaseHold(hold, accrualEngine.today(), batch);
+            dataManager.logBatch(batch);
+        } finally {
+            itemLock.unlock();
+            stateLock.readLock().unlock();
+        }
+        compactIfNeeded();
+        return TransactionResult.success("Hold on '" + item.getTitle() + "' cancelled for " + member.getName() + ".", null, null);
+    }
+
+    /**
+     * Releases every set-aside item whose pickup window has passed to the next member in line,
+     * or back to the shelf, persisting the changes with a single journal write.
+     * Returns the number of holds that expired.
+     */
+    public int expireHolds() {
+        long start = System.nanoTime();
+        LocalDate today = accrualEngine.today();
+        int expired = 0;
+        MutationLog.Batch batch = new MutationLog.Batch();
+        stateLock.readLock().lock();
+        try {
+            for (Hold hold : holdQueues.readyHolds()) {
+                if (!hold.getExpiresOn().isBefore(today)) continue;
+                Lock itemLock = itemLocks.get(key(hold.getItem().getItemId()));
+                itemLock.lock();
+                try {
+                    // Re-checked under the lock, since the hold may have been picked up meanwhile
+                    if (expireHoldIfDue(hold.getItem(), today, batch)) expired++;
+                } finally {
+                    itemLock.unlock();
+                }
+            }
+            dataManager.logBatch(batch);
+        } finally {
+            stateLock.readLock().unlock();
+        }
+        compactIfNeeded();
+        EXPIRE_HOLDS_STATS.record(start);
+        return expired;
+    }
+
+    public List<Hold> getHolds(String memberId) {
+        Member member = lookupMember(memberId);
+        return member == null ? Collections.emptyList() : holdQueues.forMember(member);
+    }
+
+    public void listMemberHolds(String memberId) {
+        Member member = lookupMember(memberId);
+        if (member == null) {
+            System.out.println("Error: Member with ID " + memberId + " not found.");
             return;
         }
+        List<Hold> holds = holdQueues.forMember(member);
+        System.out.println("--- Holds for " + member.getName() + " ---");
+        if (holds.isEmpty()) System.out.println("No holds.");
+        holds.forEach(hold -> {
+            String state = hold.isReady() ? "ready for pickup until " + hold.getExpiresOn() : "position " + holdQueues.positionOf(hold) + " in queue";
+            System.out.println(hold.getItem().getTitle() + " (ID: " + hold.getItem().getItemId() + ") - " + state);
+        });
+    }
 
-        Loan loanToClose = loanToCloseOpt.get();
-        LibraryItem item = loanToClose.getItem();
-        item.setStatus(ItemStatus.AVAILABLE);
+    // Expires the hold at the front of the item's queue if its pickup window has passed. Called with the item lock held.
+    private boolean expireHoldIfDue(LibraryItem item, LocalDate today, MutationLog.Batch batch) {
+        Hold head = holdQueues.peek(item);
+        if (head == null || !head.isReady() || !head.getExpiresOn().isBefore(today)) return false;
+        releaseHold(head, today, batch);
+        return true;
+    }
 
-        LocalDate returnDate = LocalDate.now();
-        if (returnDate.isAfter(loanToClose.getDueDate())) {
-            long daysOverdue = ChronoUnit.DAYS.between(loanToClose.getDueDate(), returnDate);
-            double fineAmount = daysOverdue * 0.25;
-            Fine newFine = new Fine(loanToClose, fineAmount);
-            outstandingFines.add(newFine);
-            System.out.println("Item is overdue by " + daysOverdue + " days. A fine of $" + String.format("%.2f", fineAmount) + " has been assessed.");
+    // Drops a hold from its queue; a set-aside item passes to the next member or goes back on the shelf
+    private void releaseHold(Hold hold, LocalDate today, MutationLog.Batch batch) {
+        LibraryItem item = hold.getItem();
+        holdQueues.remove(hold);
+        batch.holdRemoved(hold);
+        if (hold.isReady() && item.compareAndSetStatus(ItemStatus.RESERVED, ItemStatus.AVAILABLE)) {
+            promoteNextHold(item, today, batch);
+            batch.statusChanged(item);
         }
+    }
 
-        activeLoans.remove(loanToClose);
-        dataManager.saveLibraryItems(inventory);
-        dataManager.saveLoans(activeLoans);
-        System.out.println("Successfully returned '" + item.getTitle() + "'.");
+    // Sets an available item aside for the first member in its queue, if anyone is waiting
+    private void promoteNextHold(LibraryItem item, LocalDate today, MutationLog.Batch batch) {
+        Hold next = holdQueues.peek(item);
+        if (next == null || !item.compareAndSetStatus(ItemStatus.AVAILABLE, ItemStatus.RESERVED)) return;
+        next.setExpiresOn(today.plusDays(HOLD_PICKUP_DAYS));
+        batch.holdReady(next);
     }
 
-    public void listActiveLoans() {
-        if (activeLoans.isEmpty()) {
-            System.out.println("There are no items currently on loan.");
+    // --- Fines ---
+    /**
+     * Returns a member's outstanding fine balance.
+     */
+    public double getFineBalance(String memberId) {
+        Member member = lookupMember(memberId);
+        return member == null ? 0 : fineLedger.getBalance(member.getMemberId());
+    }
+
+    public List<Fine> getUnpaidFines(String memberId) {
+        Member member = lookupMember(memberId);
+        return member == null ? Collections.emptyList() : fineLedger.getUnpaidFines(member.getMemberId());
+    }
+
+    /**
+     * Returns up to k member IDs with the highest outstanding balances, highest first.
+     */
+    public List<Map.Entry<String, Double>> getTopDebtors(int k) {
+        return fineLedger.getTopDebtors(k);
+    }
+
+    /**
+     * Records payment of an unpaid fine in the ledger.
+     */
+    public TransactionResult payFine(String fineId) {
+        Fine fine = fineId == null ? null : fineLedger.getUnpaidFine(fineId.toUpperCase(Locale.ROOT));
+        if (fine == null) {
+            return TransactionResult.failure("No unpaid fine found with ID " + fineId);
+        }
+        if (!fineLedger.recordPayment(fine.getFineId(), accrualEngine.today())) {
+            if (fineLedger.getUnpaidFine(fine.getFineId()) == null) {
+                return TransactionResult.failure("Fine " + fine.getFineId() + " has already been paid.");
+            }
+            return TransactionResult.failure("Payment of fine " + fine.getFineId() + " could not be recorded; it is still unpaid.");
+        }
+        return TransactionResult.success("Fine " + fine.getFineId() + " of $" + String.format("%.2f", fine.getAmount()) + " paid.", null, fine);
+    }
+
+    public void listMemberFines(String memberId) {
+        Member member = lookupMember(memberId);
+        if (member == null) {
+            System.out.println("Error: Member with ID " + memberId + " not found.");
             return;
         }
-        System.out.println("--- Active Loans ---");
-        activeLoans.forEach(loan -> {
-            System.out.println("Item: " + loan.getItem().getTitle() + " (ID: " + loan.getItem().getItemId() + ")");
-            System.out.println("Member: " + loan.getMember().getName() + " (ID: " + loan.getMember().getMemberId() + ")");
-            System.out.println("Due Date: " + loan.getDueDate());
-            System.out.println("--------------------");
+        List<Fine> fines = fineLedger.getUnpaidFines(member.getMemberId());
+        System.out.println("--- Unpaid Fines for " + member.getName() + " ---");
+        if (fines.isEmpty()) System.out.println("No unpaid fines.");
+        fines.forEach(fine -> System.out.println(fine.getFineId() + ": $" + String.format("%.2f", fine.getAmount())
+            + " for item " + fine.getItemId() + " (assessed " + fine.getDateAssessed() + ")"));
+        System.out.println("Balance: $" + String.format("%.2f", fineLedger.getBalance(member.getMemberId())));
+    }
+
+    public void listTopDebtors(int k) {
+        List<Map.Entry<String, Double>> debtors = getTopDebtors(k);
+        System.out.println("--- Top Debtors ---");
+        if (debtors.isEmpty()) System.out.println("No outstanding fines.");
+        debtors.forEach(debtor -> {
+            Member member = lookupMember(debtor.getKey());
+            String name = member == null ? debtor.getKey() : member.getName() + " (" + debtor.getKey() + ")";
+            System.out.println(name + " - $" + String.format("%.2f", debtor.getValue()));
         });
     }
-    
-    // --- Search ---
-    public void search(String query) {
-        System.out.println("\n--- Search Results for '" + query + "' ---");
-        boolean found = false;
 
-        for (LibraryItem item : inventory) {
-            if (item.matches(query)) {
-                item.display();
-                System.out.println("--------------------");
-                found = true;
+    public void listOverdueAndDueSoon(int days) {
+        List<Loan> overdue = getOverdueLoans();
+        List<Loan> dueSoon = getLoansDueWithin(days);
+        System.out.println("--- Overdue Loans ---");
+        if (overdue.isEmpty()) System.out.println("No loans are overdue.");
+        overdue.forEach(loan -> System.out.println(loan.getItem().getTitle() + " (ID: " + loan.getItem().getItemId() + ") - "
+            + loan.getMember().getName() + " - due " + loan.getDueDate()));
+        System.out.println("--- Due in the Next " + days + " Days ---");
+        if (dueSoon.isEmpty()) System.out.println("No loans are due soon.");
+        dueSoon.forEach(loan -> System.out.println(loan.getItem().getTitle() + " (ID: " + loan.getItem().getItemId() + ") - "
+            + loan.getMember().getName() + " - due " + loan.getDueDate()));
+    }
+
+    /**
+     * Returns up to pageSize active loans in due-date order, starting at the cursor (null for the first page),
+     * optionally restricted to one item type. A cursor stays valid while loans are opened and closed.
+     */
+    public Page<Loan> getLoansPage(String cursor, int pageSize, Class<? extends LibraryItem> type) {
+        LocalDate afterDueDate = null;
+        String afterItemId = null;
+        if (cursor != null) {
+            String[] position = cursor.split("\\|", 2);
+            if (position.length != 2) throw new IllegalArgumentException("Invalid cursor '" + cursor + "'");
+            afterDueDate = LocalDate.parse(position[0]);
+            afterItemId = position[1];
+        }
+        // One extra loan tells whether another page follows
+        List<Loan> loans = dueDateIndex.page(afterDueDate, afterItemId, pageSize + 1, loan -> type == null || type.isInstance(loan.getItem()));
+        if (loans.size() <= pageSize) {
+            return new Page<>(loans, null);
+        }
+        loans.remove(pageSize);
+        Loan last = loans.get(pageSize - 1);
+        return new Page<>(loans, last.getDueDate() + "|" + last.getItem().getItemId());
+    }
+
+    public void listActiveLoans() {
+        PrintWriter out = consoleWriter();
+        Page<Loan> page = getLoansPage(null, LISTING_PAGE_SIZE, null);
+        if (page.getItems().isEmpty()) {
+            out.println("There are no items currently on loan.");
+        } else {
+            out.println("--- Active Loans ---");
+        }
+        while (true) {
+            printLoans(page.getItems(), out);
+            if (!page.hasMore()) break;
+            page = getLoansPage(page.getNextCursor(), LISTING_PAGE_SIZE, null);
+        }
+        out.flush();
+    }
+
+    public void printLoans(List<Loan> loans, PrintWriter out) {
+        for (Loan loan : loans) {
+            out.println("Item: " + loan.getItem().getTitle() + " (ID: " + loan.getItem().getItemId() + ")");
+            out.println("Member: " + loan.getMember().getName() + " (ID: " + loan.getMember().getMemberId() + ")");
+            out.println("Due Date: " + loan.getDueDate());
+            out.println("--------------------");
+        }
+    }
+
+    // --- Paging ---
+    // Scans an append-only list from the offset encoded in the cursor, collecting elements of the given class
+    // that match the filter. Scanning stops at the first match beyond the page, which becomes the next cursor.
+    private static <E, T extends E> Page<T> page(List<E> source, String cursor, int pageSize, Class<T> kind, Predicate<T> filter) {
+        if (pageSize <= 0) throw new IllegalArgumentException("Page size must be positive");
+        int offset = 0;
+        if (cursor != null) {
+            try {
+                offset = Integer.parseInt(cursor);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid cursor '" + cursor + "'");
             }
         }
-        
-        for (User user : users) {
-            if (user instanceof Searchable && ((Searchable) user).matches(query)) {
-                if (user instanceof Member) ((Member)user).display();
-                System.out.println("--------------------");
-                found = true;
+        List<T> page = new ArrayList<>(Math.min(pageSize, 1024));
+        synchronized (source) {
+            for (int i = offset; i < source.size(); i++) {
+                E element = source.get(i);
+                if (!kind.isInstance(element)) continue;
+                T candidate = kind.cast(element);
+                if (!filter.test(candidate)) continue;
+                if (page.size() == pageSize) {
+                    return new Page<>(page, Integer.toString(i));
+                }
+                page.add(candidate);
             }
         }
+        return new Page<>(page, null);
+    }
 
-        if (!found) {
-            System.out.println("No items or members found matching your query.");
+    private static PrintWriter consoleWriter() {
+        return new PrintWriter(new BufferedWriter(new OutputStreamWriter(System.out), 1 << 16));
+    }
+    
+    // --- Persistence ---
+    // Must not be called while holding the state read lock, since compaction takes the write lock
+    private void compactIfNeeded() {
+        if (!dataManager.needsCompaction()) return;
+        stateLock.writeLock().lock();
+        try {
+            // Re-checked under the lock so concurrent callers don't compact twice in a row
+            if (dataManager.needsCompaction()) {
+                compact();
+            }
+        } finally {
+            stateLock.writeLock().unlock();
         }
     }
-}
 
+    private void compact() {
+        stateLock.writeLock().lock();
+        try {
+            dataManager.compact(new ArrayList<>(inventory), new ArrayList<>(users), new ArrayList<>(activeLoans.all()), holdQueues.all());
+        } finally {
+            stateLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Prints the latency, error and I/O statistics of every operation called so far.
+     * The same figures are published over JMX under the libratech domain.
+     */
+    public void printMetrics() {
+        System.out.println("--- Operation Metrics ---");
+        Metrics.dump(System.out);
+        System.out.printf("Search cache: %d queries, %d hits, %d misses (%.1f%% hit rate), %d evicted, %d invalidated%n",
+            searchCache.size(), searchCache.getHits(), searchCache.getMisses(), searchCache.getHitRate() * 100,
+            searchCache.getEvictions(), searchCache.getInvalidations());
+    }
+
+    /**
+     * The circulation statistics gathered from borrows and returns since startup.
+     */
+    public CirculationAnalytics getCirculationAnalytics() {
+        return analytics;
+    }
+
+    public void printCirculationReport() {
+        PrintWriter out = consoleWriter();
+        analytics.printReport(out, 10, 14);
+        out.flush();
+    }
+
+    /**
+     * Folds the journal into the snapshots and releases the journal file. Call before exiting.
+     */
+    public void shutdown() {
+        if (accrualScheduler != null) {
+            accrualScheduler.stop();
+        }
+        compact();
+        dataManager.close();
+    }
+
+    /**
+     * Applies journal entries on top of the loaded snapshot. Every operation is idempotent,
+     * since entries may already be reflected in the snapshot after an interrupted compaction.
+     */
+    private class JournalReplayer implements MutationLog.Handler {
+        @Override
+        public void itemAdded(LibraryItem item) {
+            if (lookupItem(item.getItemId()) != null) return;
+            inventory.add(item);
+            indexItem(item);
+        }
+
+        @Override
+        public void statusChanged(String itemId, ItemStatus status) {
+            LibraryItem item = lookupItem(itemId);
+            if (item != null) item.setStatus(status);
+        }
+
+        @Override
+        public void loanOpened(String itemId, String memberId, LocalDate borrowDate, LocalDate dueDate) {
+            LibraryItem item = lookupItem(itemId);
+            Member member = lookupMember(memberId);
+            if (item == null || member == null) return;
+            // Replayed loans are not held to the borrow limits, which applied when they were opened
+            Loan loan = new Loan(item, member, borrowDate, dueDate);
+            if (activeLoans.add(loan)) dueDateIndex.add(loan);
+        }
+
+        @Override
+        public void loanClosed(String itemId) {
+            Loan loan = activeLoans.forItem(itemId);
+            if (loan != null && activeLoans.remove(loan)) dueDateIndex.remove(loan);
+        }
+
+        @Override
+        public void loanAccrued(String itemId, LocalDate accruedThrough) {
+            Loan loan = activeLoans.forItem(itemId);
+            if (loan != null) loan.setAccruedThrough(accruedThrough);
+        }
+
+        @Override
+        public void memberRegistered(Member member) {
+            if (lookupMember(member.getMemberId()) != null) return;
+            users.add(member);
+            indexUser(member);
+        }
+
+        @Override
+        public void holdPlaced(String itemId, String memberId, LocalDate placedOn) {
+            LibraryItem item = lookupItem(itemId);
+            Member member = lookupMember(memberId);
+            if (item == null || member == null) return;
+            if (holdQueues.find(item, member) == null) holdQueues.add(new Hold(item, member, placedOn));
+        }
+
+        @Override
+        public void holdReady(String itemId, String memberId, LocalDate expiresOn) {
+            Hold hold = findHold(itemId, memberId);
+            if (hold != null) hold.setExpiresOn(expiresOn);
+        }
+
+        @Override
+        public void holdRemoved(String itemId, String memberId) {
+            Hold hold = findHold(itemId, memberId);
+            if (hold != null) holdQueues.remove(hold);
+        }
+
+        private Hold findHold(String itemId, String memberId) {
+            LibraryItem item = lookupItem(itemId);
+            Member member = lookupMember(memberId);
+            return item == null || member == null ? null : holdQueues.find(item, member);
+        }
+    }
+
+    // --- Index Maintenance ---
+    private void indexItem(LibraryItem item) {
+        itemsById.put(key(item.getItemId()), item);
+        catalogIndex.add(item);
+        searchIndex.add(item, item.getSearchableFields());
+        searchCache.documentAdded(item.getSearchableFields());
+        completionPhrases(item).forEach(completionIndex::add);
+    }
+
+    private void indexUser(User user) {
+        if (user instanceof Member) {
+            Member member = (Member) user;
+            membersById.put(key(member.getMemberId()), member);
+            searchIndex.add(member, member.getSearchableFields());
+            searchCache.documentAdded(member.getSearchableFields());
+            completionIndex.add(member.getName());
+        }
+    }
+
+    // Titles and authors are offered as completions; ISBNs, issue dates and publications are not
+    private static List<String> completionPhrases(LibraryItem item) {
+        if (item instanceof Book) return Arrays.asList(item.getTitle(), ((Book) item).getAuthor());
+        if (item instanceof Article) return Arrays.asList(item.getTitle(), ((Article) item).getAuthor());
+        return Collections.singletonList(item.getTitle());
+    }
+
+    private static String key(String id) {
+        return id.toUpperCase(Locale.ROOT);
+    }
+
+    // --- Search ---
+    /**
+     * Returns all items and members matching every term of the query, best match first.
+     * Repeated queries are answered from the cache; the returned list is read-only.
+     */
+    public List<Searchable> findMatches(String query) {
+        long start = System.nanoTime();
+        List<String> terms = InvertedIndex.tokenize(query);
+        String key = QueryCache.key(terms);
+        List<Searchable> matches = searchCache.get(key);
+        if (matches == null) {
+            long epoch = searchCache.epoch();
+            matches = searchCache.put(key, terms, searchIndex.search(query), epoch);
+        }
+        SEARCH_STATS.record(start);
+        return matches;
+    }
+
+    /**
+     * Returns up to limit titles, authors and member names completing the prefix, most frequent first.
+     * With fuzzy set, a prefix with one typo also completes.
+     */
+    public List<CompletionIndex.Completion> complete(String prefix, int limit, boolean fuzzy) {
+        long start = System.nanoTime();
+        List<CompletionIndex.Completion> completions = completionIndex.complete(prefix, limit, fuzzy);
+        COMPLETE_STATS.record(start);
+        return completions;
+    }
+
+    public void search(String query) {
+        PrintWriter out = consoleWriter();
+        out.println("\n--- Search Results for '" + query + "' ---");
+        List<Searchable> results = findMatches(query);
+
+        for (Searchable result : results) {
+            if (result instanceof LibraryItem) ((LibraryItem) result).display(out);
+            if (result instanceof Member) ((Member) result).display(out);
+            out.println("--------------------");
+        }
+
+        if (results.isEmpty()) {
+            out.println("No items or members found matching your query.");
+        }
+        out.flush();
+    }
+}
@@ -0,0 +1,466 @@
+import models.*;
+import index.CompletionIndex;
+import interfaces.Searchable;
+import services.CirculationAnalytics;
+import services.HeavyHitters;
+import util.Json;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.reflect.Method;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Exposes the Library operations as a small HTTP/JSON API using the JDK's built-in server.
+ * Each request runs on its own virtual thread when the JVM supports them (Java 21+),
+ * and on a cached platform thread pool otherwise.
+ *
+ *   GET  /items               page through items: ?cursor=&limit=&status=&type=
+ *   GET  /items?isbn=...      copies of a book
+ *   GET  /items?author=...    books and articles by an author: &status=
+ *   GET  /inventory           item counts by type and status
+ *   GET  /analytics           circulation statistics: ?top=&days=
+ *   GET  /items/{id}          look up an item
+ *   POST /items               add an item: {"type":"book|magazine|article","title":...}
+ *   GET  /members/{id}        look up a member
+ *   POST /members             register a member: {"name":...,"password":...}
+ *   GET  /search?q=...        search items and members
+ *   GET  /complete?q=...      complete a typed prefix: &limit=&fuzzy=true
+ *   GET  /loans               page through active loans by due date: ?cursor=&limit=&type=
+ *   GET  /loans?memberId=...  a member's active loans
+ *   POST /loans               borrow an item: {"memberId":...,"itemId":...}
+ *   POST /returns             return an item: {"itemId":...}
+ *   POST /holds               place a hold: {"memberId":...,"itemId":...}
+ *   DELETE /holds?memberId=...&itemId=...   cancel a hold
+ */
+public class LibraryServer {
+
+    private final Library library;
+    private final HttpServer server;
+    private final ExecutorService executor;
+
+    public LibraryServer(Library library, int port) throws IOException {
+        this.library = library;
+        this.server = HttpServer.create(new InetSocketAddress(port), 0);
+        this.executor = newRequestExecutor();
+
+        server.createContext("/items", exchange -> handle(exchange, this::items));
+        server.createContext("/members", exchange -> handle(exchange, this::members));
+        server.createContext("/inventory", exchange -> handle(exchange, this::inventory));
+        server.createContext("/analytics", exchange -> handle(exchange, this::analytics));
+        server.createContext("/search", exchange -> handle(exchange, this::search));
+        server.createContext("/complete", exchange -> handle(exchange, this::complete));
+        server.createContext("/loans", exchange -> handle(exchange, this::loans));
+        server.createContext("/returns", exchange -> handle(exchange, this::returns));
+        server.createContext("/holds", exchange -> handle(exchange, this::holds));
+        server.setExecutor(executor);
+    }
+
+    public void start() {
+        server.start();
+        System.out.println("LibraTech server listening on port " + server.getAddress().getPort());
+    }
+
+    public void stop() {
+        server.stop(1);
+        executor.shutdown();
+    }
+
+    // Uses a virtual-thread-per-task executor where available, without requiring Java 21 to compile
+    private static ExecutorService newRequestExecutor() {
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newCachedThreadPool();
+        }
+    }
+
+    // --- Routes ---
+
+    private Response items(HttpExchange exchange) throws IOException {
+        String method = exchange.getRequestMethod();
+        String id = pathId(exchange, "/items");
+        if (method.equals("GET") && id != null) {
+            LibraryItem item = library.findItemById(id);
+            return item == null ? Response.error(404, "No item found with ID " + id) : Response.ok(200, itemJson(item));
+        }
+        String isbn = queryParameter(exchange, "isbn");
+        String author = queryParameter(exchange, "author");
+        if (method.equals("GET") && (isbn != null || author != null)) {
+            List<? extends LibraryItem> found = isbn != null ? library.findBooksByIsbn(isbn) : library.findItemsByAuthor(author, status(exchange));
+            Json.Writer json = new Json.Writer().beginObject().beginArray("items");
+            for (LibraryItem item : found) {
+                writeItem(json.beginObject(), item).endObject();
+            }
+            return Response.ok(200, json.endArray().endObject().toString());
+        }
+        if (method.equals("GET")) {
+            Page<LibraryItem> page = library.getItemsPage(queryParameter(exchange, "cursor"), limit(exchange),
+                status(exchange), itemType(exchange));
+            Json.Writer json = new Json.Writer().beginObject().beginArray("items");
+            for (LibraryItem item : page.getItems()) {
+                writeItem(json.beginObject(), item).endObject();
+            }
+            return Response.ok(200, withCursor(json.endArray(), page).endObject().toString());
+        }
+        if (method.equals("POST") && id == null) {
+            Map<String, String> body = Json.parseObject(readBody(exchange));
+            LibraryItem item = newItem(body);
+            library.addLibraryItem(item);
+            return Response.ok(201, itemJson(item));
+        }
+        return Response.error(405, "Unsupported request");
+    }
+
+    private Response members(HttpExchange exchange) throws IOException {
+        String method = exchange.getRequestMethod();
+        String id = pathId(exchange, "/members");
+        if (method.equals("GET") && id != null) {
+            Member member = library.findMemberById(id);
+            return member == null ? Response.error(404, "No member found with ID " + id) : Response.ok(200, memberJson(member));
+        }
+        if (method.equals("POST") && id == null) {
+            Map<String, String> body = Json.parseObject(readBody(exchange));
+            Member member = new Member(required(body, "name"), required(body, "password"));
+            library.registerMember(member);
+            return Response.ok(201, memberJson(member));
+        }
+        return Response.error(405, "Unsupported request");
+    }
+
+    private Response inventory(HttpExchange exchange) {
+        if (!exchange.getRequestMethod().equals("GET")) return Response.error(405, "Unsupported request");
+        Json.Writer json = new Json.Writer().beginObject().field("total", library.countItems(null, null));
+        for (Class<? extends LibraryItem> type : Arrays.asList(Book.class, Magazine.class, Article.class)) {
+            json.beginObject(type.getSimpleName().toLowerCase(Locale.ROOT)).field("total", library.countItems(type, null));
+            for (ItemStatus status : ItemStatus.values()) {
+                json.field(status.name().toLowerCase(Locale.ROOT), library.countItems(type, status));
+            }
+            json.endObject();
+        }
+        return Response.ok(200, json.endObject().toString());
+    }
+
+    private Response analytics(HttpExchange exchange) {
+        if (!exchange.getRequestMethod().equals("GET")) return Response.error(405, "Unsupported request");
+        int top = intParameter(exchange, "top", 10);
+        int days = intParameter(exchange, "days", 14);
+        CirculationAnalytics analytics = library.getCirculationAnalytics();
+        Json.Writer json = new Json.Writer().beginObject()
+            .field("borrows", analytics.getBorrowCount())
+            .field("returns", analytics.getReturnCount())
+            .field("overdueReturns", analytics.getOverdueReturnCount())
+            .field("averageLoanDays", analytics.getAverageLoanDays());
+
+        json.beginObject("borrowsByType");
+        analytics.getBorrowsByType().forEach(json::field);
+        json.endObject().beginObject("returnsByType");
+        analytics.getReturnsByType().forEach(json::field);
+        json.endObject();
+
+        json.beginArray("topTitles");
+        for (HeavyHitters.Entry<String> entry : analytics.getTopTitles(top)) {
+            json.beginObject().field("title", entry.getKey()).field("borrows", entry.getCount()).field("maxOvercount", entry.getError()).endObject();
+        }
+        json.endArray().beginArray("hours");
+        long[] borrowsByHour = analytics.getBorrowsByHour();
+        long[] returnsByHour = analytics.getReturnsByHour();
+        for (int hour = 0; hour < borrowsByHour.length; hour++) {
+            json.beginObject().field("hour", hour).field("borrows", borrowsByHour[hour]).field("returns", returnsByHour[hour]).endObject();
+        }
+        json.endArray().beginArray("days");
+        for (CirculationAnalytics.Day day : analytics.getLastDays(days)) {
+            json.beginObject().field("date", day.getDate().toString()).field("borrows", day.getBorrows()).field("returns", day.getReturns()).endObject();
+        }
+        return Response.ok(200, json.endArray().endObject().toString());
+    }
+
+    private Response search(HttpExchange exchange) {
+        if (!exchange.getRequestMethod().equals("GET")) return Response.error(405, "Unsupported request");
+        String query = queryParameter(exchange, "q");
+        if (query == null) return Response.error(400, "Missing query parameter 'q'");
+
+        Json.Writer json = new Json.Writer().beginObject().beginArray("results");
+        for (Searchable result : library.findMatches(query)) {
+            if (result instanceof LibraryItem) writeItem(json.beginObject(), (LibraryItem) result).endObject();
+            if (result instanceof Member) writeMember(json.beginObject(), (Member) result).endObject();
+        }
+        return Response.ok(200, json.endArray().endObject().toString());
+    }
+
+    private Response complete(HttpExchange exchange) {
+        if (!exchange.getRequestMethod().equals("GET")) return Response.error(405, "Unsupported request");
+        String prefix = queryParameter(exchange, "q");
+        if (prefix == null) return Response.error(400, "Missing query parameter 'q'");
+
+        boolean fuzzy = "true".equalsIgnoreCase(queryParameter(exchange, "fuzzy"));
+        Json.Writer json = new Json.Writer().beginObject().beginArray("completions");
+        for (CompletionIndex.Completion completion : library.complete(prefix, limit(exchange, DEFAULT_COMPLETIONS), fuzzy)) {
+            json.beginObject().field("text", completion.getText()).field("weight", completion.getWeight()).endObject();
+        }
+        return Response.ok(200, json.endArray().endObject().toString());
+    }
+
+    private Response loans(HttpExchange exchange) throws IOException {
+        String method = exchange.getRequestMethod();
+        String memberId = queryParameter(exchange, "memberId");
+        if (method.equals("GET") && memberId != null) {
+            Json.Writer json = new Json.Writer().beginObject().beginArray("loans");
+            for (Loan loan : library.getMemberLoans(memberId)) {
+                writeLoan(json.beginObject(), loan).endObject();
+            }
+            return Response.ok(200, json.endArray().endObject().toString());
+        }
+        if (method.equals("GET")) {
+            Page<Loan> page = library.getLoansPage(queryParameter(exchange, "cursor"), limit(exchange), itemType(exchange));
+            Json.Writer json = new Json.Writer().beginObject().beginArray("loans");
+            for (Loan loan : page.getItems()) {
+                writeLoan(json.beginObject(), loan).endObject();
+            }
+            return Response.ok(200, withCursor(json.endArray(), page).endObject().toString());
+        }
+        if (method.equals("POST")) {
+            Map<String, String> body = Json.parseObject(readBody(exchange));
+            return transaction(library.checkout(required(body, "memberId"), required(body, "itemId")), 201);
+        }
+        return Response.error(405, "Unsupported request");
+    }
+
+    private Response returns(HttpExchange exchange) throws IOException {
+        if (!exchange.getRequestMethod().equals("POST")) return Response.error(405, "Unsupported request");
+        Map<String, String> body = Json.parseObject(readBody(exchange));
+        return transaction(library.checkin(required(body, "itemId")), 200);
+    }
+
+    private Response holds(HttpExchange exchange) throws IOException {
+        String method = exchange.getRequestMethod();
+        if (method.equals("POST")) {
+            Map<String, String> body = Json.parseObject(readBody(exchange));
+            return transaction(library.placeHold(required(body, "memberId"), required(body, "itemId")), 201);
+        }
+        if (method.equals("DELETE")) {
+            String memberId = queryParameter(exchange, "memberId");
+            String itemId = queryParameter(exchange, "itemId");
+            if (memberId == null || itemId == null) return Response.error(400, "Missing query parameter 'memberId' or 'itemId'");
+            return transaction(library.cancelHold(memberId, itemId), 200);
+        }
+        return Response.error(405, "Unsupported request");
+    }
+
+    private Response transaction(TransactionResult result, int successStatus) {
+        if (!result.isSuccess()) return Response.error(409, result.getMessage());
+        Json.Writer json = new Json.Writer().beginObject().field("message", result.getMessage());
+        if (result.getLoan() != null) {
+            writeLoan(json.beginObject("loan"), result.getLoan()).endObject();
+        }
+        if (result.getFine() != null) {
+            json.field("fine", result.getFine().getAmount());
+        }
+        return Response.ok(successStatus, json.endObject().toString());
+    }
+
+    // --- Paging Parameters ---
+
+    private static final int DEFAULT_PAGE_SIZE = 50;
+    private static final int MAX_PAGE_SIZE = 1000;
+    private static final int DEFAULT_COMPLETIONS = 10;
+
+    private static int limit(HttpExchange exchange) {
+        return limit(exchange, DEFAULT_PAGE_SIZE);
+    }
+
+    private static int limit(HttpExchange exchange, int defaultLimit) {
+        String limit = queryParameter(exchange, "limit");
+        if (limit == null) return defaultLimit;
+        int pageSize = Integer.parseInt(limit);
+        if (pageSize <= 0 || pageSize > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("limit must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        return pageSize;
+    }
+
+    private static int intParameter(HttpExchange exchange, String name, int defaultValue) {
+        String value = queryParameter(exchange, name);
+        if (value == null) return defaultValue;
+        int parsed = Integer.parseInt(value);
+        if (parsed <= 0) throw new IllegalArgumentException(name + " must be positive");
+        return parsed;
+    }
+
+    private static ItemStatus status(HttpExchange exchange) {
+        String status = queryParameter(exchange, "status");
+        return status == null ? null : ItemStatus.valueOf(status.toUpperCase(Locale.ROOT));
+    }
+
+    private static Class<? extends LibraryItem> itemType(HttpExchange exchange) {
+        String type = queryParameter(exchange, "type");
+        if (type == null) return null;
+        switch (type.toLowerCase(Locale.ROOT)) {
+            case "book":
+                return Book.class;
+            case "magazine":
+                return Magazine.class;
+            case "article":
+                return Article.class;
+            default:
+                throw new IllegalArgumentException("Unknown item type '" + type + "'");
+        }
+    }
+
+    private static Json.Writer withCursor(Json.Writer json, Page<?> page) {
+        return page.hasMore() ? json.field("nextCursor", page.getNextCursor()) : json;
+    }
+
+    private static LibraryItem newItem(Map<String, String> body) {
+        String type = required(body, "type").toLowerCase(Locale.ROOT);
+        String title = required(body, "title");
+        switch (type) {
+            case "book":
+                return new Book(title, required(body, "author"), required(body, "isbn"));
+            case "magazine":
+                return new Magazine(title, required(body, "issueDate"));
+            case "article":
+                return new Article(title, required(body, "author"), required(body, "publication"));
+            default:
+                throw new IllegalArgumentException("Unknown item type '" + type + "'");
+        }
+    }
+
+    // --- JSON Rendering ---
+
+    private static String itemJson(LibraryItem item) {
+        return writeItem(new Json.Writer().beginObject(), item).endObject().toString();
+    }
+
+    private static String memberJson(Member member) {
+        return writeMember(new Json.Writer().beginObject(), member).endObject().toString();
+    }
+
+    private static Json.Writer writeItem(Json.Writer json, LibraryItem item) {
+        json.field("id", item.getItemId()).field("title", item.getTitle());
+        if (item instanceof Book) {
+            Book book = (Book) item;
+            json.field("type", "book").field("author", book.getAuthor()).field("isbn", book.getIsbn());
+        } else if (item instanceof Magazine) {
+            json.field("type", "magazine").field("issueDate", ((Magazine) item).getIssueDate());
+        } else if (item instanceof Article) {
+            Article article = (Article) item;
+            json.field("type", "article").field("author", article.getAuthor()).field("publication", article.getPublication());
+        }
+        return json.field("status", item.getStatus().name());
+    }
+
+    private static Json.Writer writeMember(Json.Writer json, Member member) {
+        return json.field("type", "member").field("id", member.getMemberId()).field("name", member.getName());
+    }
+
+    private static Json.Writer writeLoan(Json.Writer json, Loan loan) {
+        return json.field("itemId", loan.getItem().getItemId())
+            .field("title", loan.getItem().getTitle())
+            .field("memberId", loan.getMember().getMemberId())
+            .field("memberName", loan.getMember().getName())
+            .field("borrowDate", loan.getBorrowDate().toString())
+            .field("dueDate", loan.getDueDate().toString());
+    }
+
+    // --- Request Plumbing ---
+
+    @FunctionalInterface
+    private interface Route {
+        Response handle(HttpExchange exchange) throws IOException;
+    }
+
+    private static class Response {
+        final int status;
+        final String body;
+
+        Response(int status, String body) {
+            this.status = status;
+            this.body = body;
+        }
+
+        static Response ok(int status, String body) {
+            return new Response(status, body);
+        }
+
+        static Response error(int status, String message) {
+            return new Response(status, new Json.Writer().beginObject().field("error", message).endObject().toString());
+        }
+    }
+
+    private void handle(HttpExchange exchange, Route route) throws IOException {
+        Response response;
+        try {
+            response = route.handle(exchange);
+        } catch (IllegalArgumentException e) {
+            response = Response.error(400, e.getMessage());
+        } catch (RuntimeException e) {
+            System.err.println("Error handling " + exchange.getRequestURI() + ": " + e);
+            response = Response.error(500, "Internal server error");
+        }
+
+        byte[] bytes = response.body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(response.status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    // Returns the path segment after the context, or null when the request targets the collection itself
+    private static String pathId(HttpExchange exchange, String context) {
+        String path = exchange.getRequestURI().getPath();
+        String rest = path.length() > context.length() ? path.substring(context.length() + 1) : "";
+        return rest.isEmpty() ? null : URLDecoder.decode(rest, StandardCharsets.UTF_8);
+    }
+
+    private static String queryParameter(HttpExchange exchange, String name) {
+        String query = exchange.getRequestURI().getRawQuery();
+        if (query == null) return null;
+        for (String pair : query.split("&")) {
+            int eq = pair.indexOf('=');
+            String key = URLDecoder.decode(eq < 0 ? pair : pair.substring(0, eq), StandardCharsets.UTF_8);
+            if (key.equals(name)) {
+                return eq < 0 ? "" : URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8);
+            }
+        }
+        return null;
+    }
+
+    private static String readBody(HttpExchange exchange) throws IOException {
+        try (InputStream in = exchange.getRequestBody()) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    private static String required(Map<String, String> body, String field) {
+        String value = body.get(field);
+        if (value == null || value.trim().isEmpty()) {
+            throw new IllegalArgumentException("Missing required field '" + field + "'");
+        }
+        return value;
+    }
+
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : 8080;
+        Library library = new Library();
+        library.startDailyTasks();
+        LibraryServer server = new LibraryServer(library, port);
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            server.stop();
+            library.shutdown();
+        }));
+        server.start();
+    }
+}
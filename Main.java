@@ -1,4 +1,10 @@
 import models.*;
+import java.io.BufferedWriter;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
 import java.util.Scanner;
 
 /**
@@ -7,10 +13,21 @@ import java.util.Scanner;
  */
 public class Main {
 
-    private static Library library = new Library();
+    private static Library library;
     private static Scanner scanner = new Scanner(System.in);
+    // Listings are rendered into one buffered writer and flushed a page at a time
+    private static PrintWriter out = new PrintWriter(new BufferedWriter(new OutputStreamWriter(System.out)));
+    private static final int PAGE_SIZE = 20;
 
-    public static void main(String[] args) {
+    public static void main(String[] args) throws Exception {
+        // Server mode exposes the library over HTTP instead of the console menu
+        if (args.length > 0 && args[0].equals("--server")) {
+            LibraryServer.main(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
+
+        library = new Library();
+        library.startDailyTasks();
         // Data is now loaded from files by the Library's constructor.
         System.out.println("Welcome to the LibraTech Management System!");
         // We will add a login screen here in the next step. For now, it goes to the main menu.
@@ -29,6 +46,18 @@ public class Main {
             System.out.println("6. Return Item");
             System.out.println("7. List Active Loans");
             System.out.println("8. Search");
+            System.out.println("9. Overdue and Due-Soon Loans");
+            System.out.println("10. Member Fines");
+            System.out.println("11. Pay Fine");
+            System.out.println("12. Top Debtors");
+            System.out.println("13. Place Hold");
+            System.out.println("14. Cancel Hold");
+            System.out.println("15. Member Holds");
+            System.out.println("16. Operation Metrics");
+            System.out.println("17. Bulk Import Catalog");
+            System.out.println("18. Inventory Summary");
+            System.out.println("19. Member Loans");
+            System.out.println("20. Circulation Report");
             System.out.println("0. Exit");
             System.out.print("Enter your choice: ");
 
@@ -42,10 +71,10 @@ public class Main {
 
             switch (choice) {
                 case 1:
-                    library.listAllItems();
+                    listItems();
                     break;
                 case 2:
-                    library.listAllMembers();
+                    listMembers();
                     break;
                 case 3:
                     addNewItemMenu();
@@ -60,12 +89,49 @@ public class Main {
                     returnItem();
                     break;
                 case 7:
-                    library.listActiveLoans();
+                    listActiveLoans();
                     break;
                 case 8:
                     search();
                     break;
+                case 9:
+                    library.listOverdueAndDueSoon(3);
+                    break;
+                case 10:
+                    memberFines();
+                    break;
+                case 11:
+                    payFine();
+                    break;
+                case 12:
+                    library.listTopDebtors(10);
+                    break;
+                case 13:
+                    placeHold();
+                    break;
+                case 14:
+                    cancelHold();
+                    break;
+                case 15:
+                    memberHolds();
+                    break;
+                case 16:
+                    library.printMetrics();
+                    break;
+                case 17:
+                    importCatalog();
+                    break;
+                case 18:
+                    inventorySummary();
+                    break;
+                case 19:
+                    memberLoans();
+                    break;
+                case 20:
+                    library.printCirculationReport();
+                    break;
                 case 0:
+                    library.shutdown();
                     System.out.println("Thank you for using LibraTech. Goodbye!");
                     return;
                 default:
@@ -74,6 +140,81 @@ public class Main {
         }
     }
 
+    private static void listItems() {
+        System.out.println("\n--- List Items ---");
+        System.out.print("Filter by status (AVAILABLE, BORROWED, RESERVED, LOST) or leave blank for all: ");
+        String statusInput = scanner.nextLine().trim();
+        ItemStatus status = null;
+        if (!statusInput.isEmpty()) {
+            try {
+                status = ItemStatus.valueOf(statusInput.toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                System.out.println("Unknown status '" + statusInput + "'. Showing all statuses.");
+            }
+        }
+        Class<? extends LibraryItem> type = readItemType();
+
+        String cursor = null;
+        boolean first = true;
+        do {
+            Page<LibraryItem> page = library.getItemsPage(cursor, PAGE_SIZE, status, type);
+            if (first && page.getItems().isEmpty()) System.out.println("No items found.");
+            library.printItems(page.getItems(), out);
+            out.flush();
+            cursor = page.getNextCursor();
+            first = false;
+        } while (cursor != null && nextPageRequested());
+    }
+
+    private static void listMembers() {
+        String cursor = null;
+        boolean first = true;
+        do {
+            Page<Member> page = library.getMembersPage(cursor, PAGE_SIZE);
+            if (first && page.getItems().isEmpty()) System.out.println("No members have been registered.");
+            library.printMembers(page.getItems(), out);
+            out.flush();
+            cursor = page.getNextCursor();
+            first = false;
+        } while (cursor != null && nextPageRequested());
+    }
+
+    private static void listActiveLoans() {
+        String cursor = null;
+        boolean first = true;
+        do {
+            Page<Loan> page = library.getLoansPage(cursor, PAGE_SIZE, null);
+            if (first) System.out.println(page.getItems().isEmpty() ? "There are no items currently on loan." : "--- Active Loans ---");
+            library.printLoans(page.getItems(), out);
+            out.flush();
+            cursor = page.getNextCursor();
+            first = false;
+        } while (cursor != null && nextPageRequested());
+    }
+
+    private static Class<? extends LibraryItem> readItemType() {
+        System.out.print("Filter by type (book, magazine, article) or leave blank for all: ");
+        String type = scanner.nextLine().trim().toLowerCase(Locale.ROOT);
+        switch (type) {
+            case "":
+                return null;
+            case "book":
+                return Book.class;
+            case "magazine":
+                return Magazine.class;
+            case "article":
+                return Article.class;
+            default:
+                System.out.println("Unknown type '" + type + "'. Showing all types.");
+                return null;
+        }
+    }
+
+    private static boolean nextPageRequested() {
+        System.out.print("Press Enter for the next page, or q to stop: ");
+        return !scanner.nextLine().trim().equalsIgnoreCase("q");
+    }
+
     private static void addNewItemMenu() {
         System.out.println("\n--- Add New Item ---");
         System.out.println("1. Add Book");
@@ -143,6 +284,81 @@ public class Main {
         library.returnItem(itemId);
     }
     
+    private static void memberFines() {
+        System.out.println("\n--- Member Fines ---");
+        System.out.print("Enter Member ID (e.g., M001): ");
+        String memberId = scanner.nextLine();
+        library.listMemberFines(memberId);
+    }
+
+    private static void payFine() {
+        System.out.println("\n--- Pay Fine ---");
+        System.out.print("Enter Fine ID (e.g., F001): ");
+        String fineId = scanner.nextLine();
+        TransactionResult result = library.payFine(fineId);
+        System.out.println(result.isSuccess() ? result.getMessage() : "Error: " + result.getMessage());
+    }
+
+    private static void placeHold() {
+        System.out.println("\n--- Place Hold ---");
+        System.out.print("Enter Member ID (e.g., M001): ");
+        String memberId = scanner.nextLine();
+        System.out.print("Enter Item ID (e.g., ITEM-001): ");
+        String itemId = scanner.nextLine();
+        TransactionResult result = library.placeHold(memberId, itemId);
+        System.out.println(result.isSuccess() ? result.getMessage() : "Error: " + result.getMessage());
+    }
+
+    private static void cancelHold() {
+        System.out.println("\n--- Cancel Hold ---");
+        System.out.print("Enter Member ID (e.g., M001): ");
+        String memberId = scanner.nextLine();
+        System.out.print("Enter Item ID (e.g., ITEM-001): ");
+        String itemId = scanner.nextLine();
+        TransactionResult result = library.cancelHold(memberId, itemId);
+        System.out.println(result.isSuccess() ? result.getMessage() : "Error: " + result.getMessage());
+    }
+
+    private static void memberHolds() {
+        System.out.println("\n--- Member Holds ---");
+        System.out.print("Enter Member ID (e.g., M001): ");
+        String memberId = scanner.nextLine();
+        library.listMemberHolds(memberId);
+    }
+
+    private static void memberLoans() {
+        System.out.println("\n--- Member Loans ---");
+        System.out.print("Enter Member ID (e.g., M001): ");
+        String memberId = scanner.nextLine();
+        library.listMemberLoans(memberId);
+    }
+
+    private static void importCatalog() {
+        System.out.println("\n--- Bulk Import Catalog ---");
+        System.out.println("One item per row: BOOK;title;author;isbn, MAGAZINE;title;issue date or ARTICLE;title;author;publication");
+        System.out.print("Enter path of the file to import: ");
+        String path = scanner.nextLine().trim();
+        System.out.print("Reject books whose ISBN is already cataloged or repeated? (y/N): ");
+        boolean uniqueIsbns = scanner.nextLine().trim().equalsIgnoreCase("y");
+        library.importCatalog(path, uniqueIsbns);
+    }
+
+    private static void inventorySummary() {
+        library.printInventorySummary();
+        System.out.print("Enter a status to list its items, an author to list their available items, or leave blank to return: ");
+        String input = scanner.nextLine().trim();
+        if (input.isEmpty()) return;
+        List<LibraryItem> items;
+        try {
+            items = library.findItems(null, ItemStatus.valueOf(input.toUpperCase(Locale.ROOT)));
+        } catch (IllegalArgumentException e) {
+            items = library.findItemsByAuthor(input, ItemStatus.AVAILABLE);
+        }
+        if (items.isEmpty()) System.out.println("No matching items.");
+        library.printItems(items, out);
+        out.flush();
+    }
+
     private static void search() {
         System.out.println("\n--- Search Library ---");
         System.out.print("Enter search query: ");
@@ -0,0 +1,82 @@
+package benchmarks;
+
+import index.CompletionIndex;
+import index.InvertedIndex;
+import interfaces.Searchable;
+import models.*;
+import org.openjdk.jmh.annotations.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Typeahead completion of short prefixes against running a full search per keystroke,
+ * plus the fuzzy path that also accepts a prefix with one transposed pair of letters.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CompletionBenchmark {
+
+    private static final int SAMPLES = 1024;
+    private static final int LIMIT = 10;
+
+    @Param({ "10000", "100000", "1000000" })
+    public int catalogSize;
+
+    private CompletionIndex completions;
+    private InvertedIndex<Searchable> searchIndex;
+    private String[] prefixes;
+    private String[] typos;
+    private int cursor;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        List<LibraryItem> items = SyntheticCatalog.generate(catalogSize, 42).getItems();
+        List<String> phrases = new ArrayList<>();
+        for (LibraryItem item : items) {
+            phrases.add(item.getTitle());
+            if (item instanceof Book) phrases.add(((Book) item).getAuthor());
+            if (item instanceof Article) phrases.add(((Article) item).getAuthor());
+        }
+        completions = new CompletionIndex();
+        completions.addAll(phrases);
+        searchIndex = new InvertedIndex<>();
+        searchIndex.addAll(items, Searchable::getSearchableFields);
+
+        // What a user has typed after two to four keystrokes, and the same with two letters swapped
+        String[] words = SyntheticCatalog.queries(SAMPLES, 7);
+        prefixes = new String[SAMPLES];
+        typos = new String[SAMPLES];
+        for (int i = 0; i < SAMPLES; i++) {
+            String word = words[i].split(" ")[0];
+            prefixes[i] = word.substring(0, Math.min(word.length(), 2 + i % 3));
+            String longer = word.substring(0, Math.min(word.length(), 4));
+            typos[i] = longer.length() < 4 ? longer : longer.charAt(0) + "" + longer.charAt(2) + longer.charAt(1) + longer.charAt(3);
+        }
+    }
+
+    private int next() {
+        int i = cursor++;
+        if (cursor == SAMPLES) cursor = 0;
+        return i;
+    }
+
+    @Benchmark
+    public List<CompletionIndex.Completion> complete() {
+        return completions.complete(prefixes[next()], LIMIT, false);
+    }
+
+    @Benchmark
+    public List<CompletionIndex.Completion> completeFuzzy() {
+        return completions.complete(typos[next()], LIMIT, true);
+    }
+
+    @Benchmark
+    public List<Searchable> searchPerKeystroke() {
+        return searchIndex.search(prefixes[next()]);
+    }
+}
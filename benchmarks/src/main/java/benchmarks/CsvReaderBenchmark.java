@@ -0,0 +1,63 @@
+package benchmarks;
+
+import data.CsvReader;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import java.io.BufferedReader;
+import java.io.FileReader;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Raw tokenizing throughput of the books snapshot: CsvReader against the line-by-line
+ * BufferedReader and String.split path it replaced. Fields are consumed but no items are built,
+ * so this isolates reading and splitting. Divide the file size by the time per operation for MB/s.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CsvReaderBenchmark {
+
+    @Param({ "100000", "1000000" })
+    public int catalogSize;
+
+    private Path directory;
+    private Path books;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("libratech-bench");
+        SyntheticCatalog.generate(catalogSize, 42).writeTo(directory);
+        books = directory.resolve("books.csv");
+        System.out.printf("%nbooks.csv: %.1f MB%n", Files.size(books) / 1e6);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        SyntheticCatalog.deleteDirectory(directory);
+    }
+
+    @Benchmark
+    public long csvReader(Blackhole blackhole) throws IOException {
+        return CsvReader.read(books, ';', blackhole::consume);
+    }
+
+    @Benchmark
+    public long lineSplit(Blackhole blackhole) throws IOException {
+        long records = 0;
+        try (BufferedReader reader = new BufferedReader(new FileReader(books.toFile()))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.trim().isEmpty()) continue;
+                blackhole.consume(line.split(";"));
+                records++;
+            }
+        }
+        return records;
+    }
+}
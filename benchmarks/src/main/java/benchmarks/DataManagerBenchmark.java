@@ -0,0 +1,58 @@
+package benchmarks;
+
+import data.DataManager;
+import models.LibraryItem;
+import models.Loan;
+import models.User;
+import org.openjdk.jmh.annotations.*;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Loading the CSV snapshots from disk. The files are written once per trial and then
+ * stay in the page cache, so this measures parsing and object construction rather than the disk.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DataManagerBenchmark {
+
+    @Param({ "1000", "10000", "100000", "1000000" })
+    public int catalogSize;
+
+    private Path directory;
+    private DataManager dataManager;
+    private List<LibraryItem> items;
+    private List<User> users;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("libratech-bench");
+        SyntheticCatalog.generate(catalogSize, 42).writeTo(directory);
+        dataManager = new DataManager(directory.toString());
+        items = dataManager.loadLibraryItems();
+        users = dataManager.loadUsers();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        dataManager.close();
+        SyntheticCatalog.deleteDirectory(directory);
+    }
+
+    @Benchmark
+    public List<LibraryItem> loadLibraryItems() {
+        return dataManager.loadLibraryItems();
+    }
+
+    @Benchmark
+    public List<Loan> loadLoans() {
+        return dataManager.loadLoans(items, users);
+    }
+}
@@ -0,0 +1,78 @@
+package benchmarks;
+
+import models.*;
+import store.ColumnarItemStore;
+import org.openjdk.jmh.annotations.*;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The columnar item store against the object inventory it can stand in for:
+ * availability scans over the status column versus the item list, and ID lookups with
+ * lazy materialization versus a map of live objects.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ItemStoreBenchmark {
+
+    @Param({ "1000", "10000", "100000", "1000000" })
+    public int catalogSize;
+
+    private List<LibraryItem> items;
+    private Map<String, LibraryItem> itemsById;
+    private ColumnarItemStore store;
+    private String[] ids;
+    private int cursor;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        items = SyntheticCatalog.generate(catalogSize, 42).getItems();
+        itemsById = new HashMap<>();
+        items.forEach(item -> itemsById.put(item.getItemId(), item));
+        store = ColumnarItemStore.of(items);
+        ids = items.stream().map(LibraryItem::getItemId).toArray(String[]::new);
+    }
+
+    private String nextId() {
+        int i = cursor++;
+        if (cursor >= catalogSize) cursor = 0;
+        return ids[i];
+    }
+
+    @Benchmark
+    public long countAvailableObjects() {
+        long count = 0;
+        for (LibraryItem item : items) {
+            if (item.getStatus() == ItemStatus.AVAILABLE) count++;
+        }
+        return count;
+    }
+
+    @Benchmark
+    public int countAvailableColumnar() {
+        return store.count(ItemStatus.AVAILABLE, ColumnarItemStore.ANY_TYPE);
+    }
+
+    @Benchmark
+    public int countAvailableBooksColumnar() {
+        return store.count(ItemStatus.AVAILABLE, ColumnarItemStore.BOOK);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public LibraryItem lookupObject() {
+        return itemsById.get(nextId());
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public LibraryItem lookupColumnar() {
+        return store.get(nextId());
+    }
+}
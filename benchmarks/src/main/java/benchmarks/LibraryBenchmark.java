@@ -0,0 +1,89 @@
+package benchmarks;
+
+import data.DataManager;
+import interfaces.Searchable;
+import models.LibraryItem;
+import models.TransactionResult;
+import org.openjdk.jmh.annotations.*;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Lookups, search and circulation through the Library facade against catalogs of 1k to 1M items.
+ * The round trip includes its share of journal writes and of the periodic compaction they trigger,
+ * so it reflects what a caller actually pays per checkout and return.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LibraryBenchmark {
+
+    private static final int SAMPLES = 4096;
+
+    @Param({ "1000", "10000", "100000", "1000000" })
+    public int catalogSize;
+
+    private Path directory;
+    private LibraryHandle library;
+    private String[] itemIds;
+    private String[] memberIds;
+    private String[] queries;
+    private int cursor;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("libratech-bench");
+        SyntheticCatalog.generate(catalogSize, 42).writeTo(directory);
+        library = new LibraryHandle(new DataManager(directory.toString()), Clock.systemDefaultZone());
+
+        // Sampled items are never among the ones the catalog has out on loan (every twentieth)
+        Random random = new Random(7);
+        int memberCount = Math.max(10, catalogSize / 10);
+        itemIds = new String[SAMPLES];
+        memberIds = new String[SAMPLES];
+        for (int i = 0; i < SAMPLES; i++) {
+            int number = 1 + random.nextInt(catalogSize);
+            if (number % 20 == 0) number--;
+            itemIds[i] = SyntheticCatalog.itemId(number);
+            memberIds[i] = SyntheticCatalog.memberId(1 + random.nextInt(memberCount));
+        }
+        queries = SyntheticCatalog.queries(SAMPLES, 11);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        library.shutdown();
+        SyntheticCatalog.deleteDirectory(directory);
+    }
+
+    private int next() {
+        cursor = (cursor + 1) & (SAMPLES - 1);
+        return cursor;
+    }
+
+    @Benchmark
+    public LibraryItem findItemById() {
+        return library.findItemById(itemIds[next()]);
+    }
+
+    @Benchmark
+    public List<Searchable> search() {
+        return library.findMatches(queries[next()]);
+    }
+
+    @Benchmark
+    public TransactionResult borrowReturnRoundTrip() {
+        int i = next();
+        TransactionResult checkout = library.checkout(memberIds[i], itemIds[i]);
+        if (!checkout.isSuccess()) throw new IllegalStateException(checkout.getMessage());
+        return library.checkin(itemIds[i]);
+    }
+}
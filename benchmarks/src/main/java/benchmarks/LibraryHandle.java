@@ -0,0 +1,104 @@
+package benchmarks;
+
+import data.DataManager;
+import interfaces.Searchable;
+import models.LibraryItem;
+import models.TransactionResult;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.time.Clock;
+import java.util.List;
+
+/**
+ * Calls into the Library facade, which lives in the default package and therefore cannot be
+ * imported from here. Method handles are resolved once, so the per-call overhead is a direct
+ * invocation rather than reflection.
+ */
+final class LibraryHandle {
+
+    private static final MethodHandle CONSTRUCTOR;
+    private static final MethodHandle FIND_ITEM_BY_ID;
+    private static final MethodHandle FIND_MATCHES;
+    private static final MethodHandle CHECKOUT;
+    private static final MethodHandle CHECKIN;
+    private static final MethodHandle SHUTDOWN;
+
+    static {
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+            Class<?> library = Class.forName("Library");
+            CONSTRUCTOR = lookup.findConstructor(library, MethodType.methodType(void.class, DataManager.class, Clock.class))
+                .asType(MethodType.methodType(Object.class, DataManager.class, Clock.class));
+            FIND_ITEM_BY_ID = lookup.findVirtual(library, "findItemById", MethodType.methodType(LibraryItem.class, String.class))
+                .asType(MethodType.methodType(LibraryItem.class, Object.class, String.class));
+            FIND_MATCHES = lookup.findVirtual(library, "findMatches", MethodType.methodType(List.class, String.class))
+                .asType(MethodType.methodType(List.class, Object.class, String.class));
+            CHECKOUT = lookup.findVirtual(library, "checkout", MethodType.methodType(TransactionResult.class, String.class, String.class))
+                .asType(MethodType.methodType(TransactionResult.class, Object.class, String.class, String.class));
+            CHECKIN = lookup.findVirtual(library, "checkin", MethodType.methodType(TransactionResult.class, String.class))
+                .asType(MethodType.methodType(TransactionResult.class, Object.class, String.class));
+            SHUTDOWN = lookup.findVirtual(library, "shutdown", MethodType.methodType(void.class))
+                .asType(MethodType.methodType(void.class, Object.class));
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private final Object library;
+
+    LibraryHandle(DataManager dataManager, Clock clock) {
+        try {
+            this.library = CONSTRUCTOR.invokeExact(dataManager, clock);
+        } catch (Throwable e) {
+            throw rethrow(e);
+        }
+    }
+
+    LibraryItem findItemById(String itemId) {
+        try {
+            return (LibraryItem) FIND_ITEM_BY_ID.invokeExact(library, itemId);
+        } catch (Throwable e) {
+            throw rethrow(e);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    List<Searchable> findMatches(String query) {
+        try {
+            return (List<Searchable>) FIND_MATCHES.invokeExact(library, query);
+        } catch (Throwable e) {
+            throw rethrow(e);
+        }
+    }
+
+    TransactionResult checkout(String memberId, String itemId) {
+        try {
+            return (TransactionResult) CHECKOUT.invokeExact(library, memberId, itemId);
+        } catch (Throwable e) {
+            throw rethrow(e);
+        }
+    }
+
+    TransactionResult checkin(String itemId) {
+        try {
+            return (TransactionResult) CHECKIN.invokeExact(library, itemId);
+        } catch (Throwable e) {
+            throw rethrow(e);
+        }
+    }
+
+    void shutdown() {
+        try {
+            SHUTDOWN.invokeExact(library);
+        } catch (Throwable e) {
+            throw rethrow(e);
+        }
+    }
+
+    private static RuntimeException rethrow(Throwable e) {
+        if (e instanceof RuntimeException) throw (RuntimeException) e;
+        if (e instanceof Error) throw (Error) e;
+        return new IllegalStateException(e);
+    }
+}
@@ -0,0 +1,121 @@
+package benchmarks;
+
+import models.*;
+import org.openjdk.jmh.annotations.*;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * CSV serialization of each model, one record per operation. Records are taken in turn from
+ * a catalog of the given size, so larger catalogs show the cost of a working set beyond the caches.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ModelCsvBenchmark {
+
+    @Param({ "1000", "10000", "100000", "1000000" })
+    public int catalogSize;
+
+    private Book[] books;
+    private Magazine[] magazines;
+    private Article[] articles;
+    private Member[] members;
+    private Loan[] loans;
+    private String[] bookLines;
+    private String[] magazineLines;
+    private String[] articleLines;
+    private String[] memberLines;
+    private String[] loanLines;
+    private Map<String, LibraryItem> itemsById;
+    private Map<String, Member> membersById;
+    private int cursor;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        SyntheticCatalog catalog = SyntheticCatalog.generate(catalogSize, 42);
+        List<LibraryItem> items = catalog.getItems();
+        books = items.stream().filter(i -> i instanceof Book).toArray(Book[]::new);
+        magazines = items.stream().filter(i -> i instanceof Magazine).toArray(Magazine[]::new);
+        articles = items.stream().filter(i -> i instanceof Article).toArray(Article[]::new);
+        members = catalog.getUsers().stream().filter(u -> u instanceof Member).toArray(Member[]::new);
+        loans = catalog.getLoans().toArray(new Loan[0]);
+
+        bookLines = new String[books.length];
+        for (int i = 0; i < books.length; i++) bookLines[i] = books[i].toCsvString();
+        magazineLines = new String[magazines.length];
+        for (int i = 0; i < magazines.length; i++) magazineLines[i] = magazines[i].toCsvString();
+        articleLines = new String[articles.length];
+        for (int i = 0; i < articles.length; i++) articleLines[i] = articles[i].toCsvString();
+        memberLines = new String[members.length];
+        for (int i = 0; i < members.length; i++) memberLines[i] = members[i].toCsvString();
+        loanLines = new String[loans.length];
+        for (int i = 0; i < loans.length; i++) loanLines[i] = loans[i].toCsvString();
+
+        itemsById = new HashMap<>();
+        items.forEach(item -> itemsById.put(item.getItemId(), item));
+        membersById = new HashMap<>();
+        for (Member member : members) membersById.put(member.getMemberId(), member);
+    }
+
+    private int next(int length) {
+        int i = cursor++;
+        if (cursor >= catalogSize) cursor = 0;
+        return i % length;
+    }
+
+    @Benchmark
+    public String bookToCsv() {
+        return books[next(books.length)].toCsvString();
+    }
+
+    @Benchmark
+    public Book bookFromCsv() {
+        return Book.fromCsvString(bookLines[next(bookLines.length)]);
+    }
+
+    @Benchmark
+    public String magazineToCsv() {
+        return magazines[next(magazines.length)].toCsvString();
+    }
+
+    @Benchmark
+    public Magazine magazineFromCsv() {
+        return Magazine.fromCsvString(magazineLines[next(magazineLines.length)]);
+    }
+
+    @Benchmark
+    public String articleToCsv() {
+        return articles[next(articles.length)].toCsvString();
+    }
+
+    @Benchmark
+    public Article articleFromCsv() {
+        return Article.fromCsvString(articleLines[next(articleLines.length)]);
+    }
+
+    @Benchmark
+    public String memberToCsv() {
+        return members[next(members.length)].toCsvString();
+    }
+
+    @Benchmark
+    public Member memberFromCsv() {
+        return Member.fromCsvString(memberLines[next(memberLines.length)]);
+    }
+
+    @Benchmark
+    public String loanToCsv() {
+        return loans[next(loans.length)].toCsvString();
+    }
+
+    @Benchmark
+    public Loan loanFromCsv() {
+        return Loan.fromCsvString(loanLines[next(loanLines.length)], itemsById, membersById);
+    }
+}
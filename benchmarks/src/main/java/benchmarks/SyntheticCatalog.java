@@ -0,0 +1,152 @@
+package benchmarks;
+
+import data.DataManager;
+import models.*;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Stream;
+
+/**
+ * Generates a deterministic library of a given size: a mix of books, magazines and articles,
+ * one member per ten items, and one active loan per twenty items.
+ * Titles and authors are drawn from a small vocabulary so search terms have realistic hit rates.
+ */
+public final class SyntheticCatalog {
+
+    static final String[] WORDS = {
+        "river", "shadow", "garden", "empire", "winter", "signal", "harbor", "silent", "crystal", "machine",
+        "forest", "ember", "quantum", "northern", "atlas", "orbit", "lantern", "paper", "glass", "storm",
+        "history", "modern", "ancient", "theory", "practice", "science", "journey", "island", "city", "ocean",
+        "memory", "light", "stone", "iron", "golden", "hidden", "last", "first", "secret", "wild"
+    };
+    private static final String[] NAMES = {
+        "Ada", "Alan", "Grace", "Linus", "Barbara", "Donald", "Edsger", "Frances", "John", "Margaret",
+        "Tony", "Niklaus", "Radia", "Ken", "Dennis", "Leslie", "Shafi", "Judea", "Yukihiro", "Guido"
+    };
+    private static final LocalDate BASE_DATE = LocalDate.of(2026, 1, 1);
+
+    private final List<LibraryItem> items;
+    private final List<User> users;
+    private final List<Loan> loans;
+
+    private SyntheticCatalog(List<LibraryItem> items, List<User> users, List<Loan> loans) {
+        this.items = items;
+        this.users = users;
+        this.loans = loans;
+    }
+
+    public List<LibraryItem> getItems() { return items; }
+    public List<User> getUsers() { return users; }
+    public List<Loan> getLoans() { return loans; }
+
+    public static SyntheticCatalog generate(int itemCount, long seed) {
+        Random random = new Random(seed);
+        List<LibraryItem> items = new ArrayList<>(itemCount);
+        for (int i = 1; i <= itemCount; i++) {
+            items.add(item(i, random));
+        }
+
+        int memberCount = Math.max(10, itemCount / 10);
+        List<User> users = new ArrayList<>(memberCount);
+        for (int i = 1; i <= memberCount; i++) {
+            users.add(Member.fromCsvFields(new String[] { memberId(i), name(random), "pw" + i }));
+        }
+
+        // Every twentieth item is out on loan, borrowed within the last four weeks
+        List<Loan> loans = new ArrayList<>(itemCount / 20);
+        for (int i = 20; i <= itemCount; i += 20) {
+            LibraryItem item = items.get(i - 1);
+            item.setStatus(ItemStatus.BORROWED);
+            Member member = (Member) users.get(random.nextInt(memberCount));
+            LocalDate borrowDate = BASE_DATE.minusDays(random.nextInt(28));
+            loans.add(new Loan(item, member, borrowDate, borrowDate.plusDays(14)));
+        }
+        return new SyntheticCatalog(items, users, loans);
+    }
+
+    /**
+     * Writes the catalog into the directory as a fresh snapshot, in both binary and CSV form.
+     */
+    public void writeTo(Path directory) {
+        DataManager dataManager = new DataManager(directory.toString());
+        dataManager.saveAll(items, users, loans, Collections.emptyList());
+        dataManager.close();
+    }
+
+    public static void deleteDirectory(Path directory) throws IOException {
+        try (Stream<Path> paths = Files.walk(directory)) {
+            for (Path path : (Iterable<Path>) paths.sorted(Comparator.reverseOrder())::iterator) {
+                Files.delete(path);
+            }
+        }
+    }
+
+    public static String itemId(int number) {
+        return "ITEM-" + String.format("%03d", number);
+    }
+
+    public static String memberId(int number) {
+        return "M" + String.format("%03d", number);
+    }
+
+    /**
+     * Returns search queries of one or two vocabulary words, some of them prefixes.
+     */
+    public static String[] queries(int count, long seed) {
+        Random random = new Random(seed);
+        String[] queries = new String[count];
+        for (int i = 0; i < count; i++) {
+            String word = WORDS[random.nextInt(WORDS.length)];
+            switch (i % 3) {
+                case 0:
+                    queries[i] = word;
+                    break;
+                case 1:
+                    queries[i] = word.substring(0, 3);
+                    break;
+                default:
+                    queries[i] = word + " " + WORDS[random.nextInt(WORDS.length)];
+            }
+        }
+        return queries;
+    }
+
+    private static LibraryItem item(int number, Random random) {
+        String id = itemId(number);
+        String title = title(random);
+        switch (number % 3) {
+            case 0:
+                return Book.fromCsvFields(new String[] { id, title, name(random), isbn(random), "AVAILABLE" });
+            case 1:
+                return Magazine.fromCsvFields(new String[] { id, title, BASE_DATE.minusMonths(random.nextInt(120)).toString(), "AVAILABLE" });
+            default:
+                return Article.fromCsvFields(new String[] { id, title, name(random), title(random) + " Review", "AVAILABLE" });
+        }
+    }
+
+    private static String title(Random random) {
+        int length = 2 + random.nextInt(3);
+        StringBuilder title = new StringBuilder();
+        for (int i = 0; i < length; i++) {
+            String word = WORDS[random.nextInt(WORDS.length)];
+            if (i > 0) title.append(' ');
+            title.append(Character.toUpperCase(word.charAt(0))).append(word, 1, word.length());
+        }
+        return title.toString();
+    }
+
+    private static String name(Random random) {
+        return NAMES[random.nextInt(NAMES.length)] + " " + NAMES[random.nextInt(NAMES.length)] + "son";
+    }
+
+    private static String isbn(Random random) {
+        return "978-" + (1000000000L + (random.nextLong() & Long.MAX_VALUE) % 9000000000L);
+    }
+}
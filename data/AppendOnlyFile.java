@@ -0,0 +1,104 @@
+package data;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * An append-only text file shared by the journal and the fine ledger.
+ * Appends are written on the caller's thread, or handed to a group-commit writer when one is given,
+ * in which case they are acknowledged as soon as they are queued.
+ */
+class AppendOnlyFile {
+
+    private final File file;
+    private final String description;
+    private final PersistenceConfig.Durability durability;
+    private final GroupCommitWriter committer;
+    private FileOutputStream stream;
+    private Writer writer;
+
+    AppendOnlyFile(String filePath, String description, PersistenceConfig.Durability durability, GroupCommitWriter committer) {
+        this.file = new File(filePath);
+        this.description = description;
+        this.durability = durability;
+        this.committer = committer;
+        if (committer != null) {
+            committer.register(this);
+        }
+    }
+
+    File getFile() {
+        return file;
+    }
+
+    /**
+     * Appends the text. Returns false if a synchronous write failed; queued appends always return true.
+     */
+    boolean append(String text) {
+        if (committer != null && committer.submit(this, text)) return true;
+        return write(text);
+    }
+
+    /**
+     * Writes and flushes the text, forcing it to the device if the durability policy asks for it.
+     */
+    synchronized boolean write(String text) {
+        try {
+            if (writer == null) {
+                stream = new FileOutputStream(file, true);
+                writer = new BufferedWriter(new OutputStreamWriter(stream, StandardCharsets.UTF_8));
+            }
+            writer.write(text);
+            writer.flush();
+            if (durability == PersistenceConfig.Durability.FSYNC_PER_BATCH) {
+                stream.getChannel().force(false);
+            }
+            return true;
+        } catch (IOException e) {
+            System.err.println("Error appending to " + description + " " + file + ": " + e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Waits until every append queued so far has been written.
+     */
+    void flush() {
+        if (committer != null) {
+            committer.flush();
+        }
+    }
+
+    /**
+     * Discards the file's contents. Pending appends are written first, so none lands after the truncation.
+     */
+    void truncate() {
+        flush();
+        synchronized (this) {
+            closeWriter();
+            try {
+                new FileOutputStream(file, false).close();
+            } catch (IOException e) {
+                System.err.println("Error truncating " + description + " " + file + ": " + e.getMessage());
+            }
+        }
+    }
+
+    void close() {
+        flush();
+        synchronized (this) {
+            closeWriter();
+        }
+    }
+
+    private void closeWriter() {
+        if (writer == null) return;
+        try {
+            writer.close();
+        } catch (IOException e) {
+            System.err.println("Error closing " + description + " " + file + ": " + e.getMessage());
+        }
+        writer = null;
+        stream = null;
+    }
+}
@@ -0,0 +1,301 @@
+package data;
+
+import models.*;
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Reads and writes the versioned binary snapshot of the library.
+ *
+ * Layout, all integers as unsigned LEB128 varints:
+ *   magic "LTSN" (4 bytes), format version
+ *   dictionary: count, then each value as a length-prefixed UTF-8 string
+ *   items:      count, then per item a type tag followed by its fields
+ *   members:    count, then id, name, password
+ *   librarians: count, then employee id, name, password
+ *   loans:      count, then item id, member id, borrow, due and accrued-through dates as epoch days
+ *               (version 1 files have no accrued-through date)
+ *   CRC32 of everything above (4 bytes, big-endian)
+ *
+ * Values that repeat across items (authors, publications, issue dates, statuses) are
+ * written once in the dictionary and referenced by index; everything else is inline.
+ */
+public final class BinarySnapshot {
+
+    private static final int MAGIC = 0x4C54534E; // "LTSN"
+    private static final int VERSION = 2;
+
+    private static final int BOOK = 1;
+    private static final int MAGAZINE = 2;
+    private static final int ARTICLE = 3;
+
+    private BinarySnapshot() {}
+
+    // --- Writing ---
+
+    public static void write(Path path, List<LibraryItem> items, List<User> users, List<Loan> loans) throws IOException {
+        Dictionary dictionary = new Dictionary();
+        for (LibraryItem item : items) {
+            dictionary.intern(item.getStatus().name());
+            if (item instanceof Book) {
+                dictionary.intern(((Book) item).getAuthor());
+            } else if (item instanceof Magazine) {
+                dictionary.intern(((Magazine) item).getIssueDate());
+            } else if (item instanceof Article) {
+                dictionary.intern(((Article) item).getAuthor());
+                dictionary.intern(((Article) item).getPublication());
+            }
+        }
+
+        Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+        CRC32 checksum = new CRC32();
+        try (OutputStream file = new BufferedOutputStream(Files.newOutputStream(temp), 1 << 16)) {
+            DataOutputStream out = new DataOutputStream(new CheckedOutputStream(file, checksum));
+            out.writeInt(MAGIC);
+            writeVarint(out, VERSION);
+
+            writeVarint(out, dictionary.values.size());
+            for (String value : dictionary.values) {
+                writeString(out, value);
+            }
+
+            writeVarint(out, items.size());
+            for (LibraryItem item : items) {
+                writeItem(out, item, dictionary);
+            }
+
+            List<Member> members = new ArrayList<>();
+            List<Librarian> librarians = new ArrayList<>();
+            for (User user : users) {
+                if (user instanceof Member) members.add((Member) user);
+                if (user instanceof Librarian) librarians.add((Librarian) user);
+            }
+            writeVarint(out, members.size());
+            for (Member member : members) {
+                writeString(out, member.getMemberId());
+                writeString(out, member.getName());
+                writeString(out, member.getPassword());
+            }
+            writeVarint(out, librarians.size());
+            for (Librarian librarian : librarians) {
+                writeString(out, librarian.getEmployeeId());
+                writeString(out, librarian.getName());
+                writeString(out, librarian.getPassword());
+            }
+
+            writeVarint(out, loans.size());
+            for (Loan loan : loans) {
+                writeString(out, loan.getItem().getItemId());
+                writeString(out, loan.getMember().getMemberId());
+                writeVarint(out, loan.getBorrowDate().toEpochDay());
+                writeVarint(out, loan.getDueDate().toEpochDay());
+                writeVarint(out, loan.getAccruedThrough().toEpochDay());
+            }
+
+            out.flush();
+            // The checksum itself is written past the checked stream
+            new DataOutputStream(file).writeInt((int) checksum.getValue());
+        }
+        Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static void writeItem(DataOutputStream out, LibraryItem item, Dictionary dictionary) throws IOException {
+        if (item instanceof Book) {
+            Book book = (Book) item;
+            writeVarint(out, BOOK);
+            writeString(out, book.getItemId());
+            writeString(out, book.getTitle());
+            writeVarint(out, dictionary.indexOf(book.getAuthor()));
+            writeString(out, book.getIsbn());
+        } else if (item instanceof Magazine) {
+            Magazine magazine = (Magazine) item;
+            writeVarint(out, MAGAZINE);
+            writeString(out, magazine.getItemId());
+            writeString(out, magazine.getTitle());
+            writeVarint(out, dictionary.indexOf(magazine.getIssueDate()));
+        } else if (item instanceof Article) {
+            Article article = (Article) item;
+            writeVarint(out, ARTICLE);
+            writeString(out, article.getItemId());
+            writeString(out, article.getTitle());
+            writeVarint(out, dictionary.indexOf(article.getAuthor()));
+            writeVarint(out, dictionary.indexOf(article.getPublication()));
+        } else {
+            throw new IOException("Unsupported item type " + item.getClass().getSimpleName());
+        }
+        writeVarint(out, dictionary.indexOf(item.getStatus().name()));
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarint(out, bytes.length);
+        out.write(bytes);
+    }
+
+    private static void writeVarint(DataOutputStream out, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.writeByte((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.writeByte((int) value);
+    }
+
+    // --- Reading ---
+
+    /**
+     * Maps the snapshot into memory, verifies its checksum and decodes it in one sequential pass.
+     */
+    public static Snapshot read(Path path) throws IOException {
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        if (buffer.limit() < Integer.BYTES * 2) {
+            throw new IOException("Snapshot " + path + " is truncated");
+        }
+
+        int bodyLength = buffer.limit() - Integer.BYTES;
+        CRC32 checksum = new CRC32();
+        checksum.update(buffer.duplicate().limit(bodyLength));
+        if ((int) checksum.getValue() != buffer.getInt(bodyLength)) {
+            throw new IOException("Snapshot " + path + " failed its checksum");
+        }
+        buffer.limit(bodyLength);
+
+        if (buffer.getInt() != MAGIC) {
+            throw new IOException(path + " is not a LibraTech snapshot");
+        }
+        int version = (int) readVarint(buffer);
+        if (version < 1 || version > VERSION) {
+            throw new IOException("Unsupported snapshot version " + version);
+        }
+
+        String[] dictionary = new String[(int) readVarint(buffer)];
+        for (int i = 0; i < dictionary.length; i++) {
+            dictionary[i] = readString(buffer);
+        }
+
+        int itemCount = (int) readVarint(buffer);
+        List<LibraryItem> items = new ArrayList<>(itemCount);
+        Map<String, LibraryItem> itemsById = new HashMap<>(itemCount * 2);
+        for (int i = 0; i < itemCount; i++) {
+            LibraryItem item = readItem(buffer, dictionary);
+            items.add(item);
+            itemsById.put(item.getItemId(), item);
+        }
+
+        List<User> users = new ArrayList<>();
+        Map<String, Member> membersById = new HashMap<>();
+        int memberCount = (int) readVarint(buffer);
+        for (int i = 0; i < memberCount; i++) {
+            Member member = Member.fromCsvFields(new String[] { readString(buffer), readString(buffer), readString(buffer) });
+            users.add(member);
+            membersById.put(member.getMemberId(), member);
+        }
+        int librarianCount = (int) readVarint(buffer);
+        for (int i = 0; i < librarianCount; i++) {
+            users.add(Librarian.fromCsvFields(new String[] { readString(buffer), readString(buffer), readString(buffer) }));
+        }
+
+        int loanCount = (int) readVarint(buffer);
+        List<Loan> loans = new ArrayList<>(loanCount);
+        int dangling = 0;
+        for (int i = 0; i < loanCount; i++) {
+            LibraryItem item = itemsById.get(readString(buffer));
+            Member member = membersById.get(readString(buffer));
+            LocalDate borrowDate = LocalDate.ofEpochDay(readVarint(buffer));
+            LocalDate dueDate = LocalDate.ofEpochDay(readVarint(buffer));
+            LocalDate accruedThrough = version >= 2 ? LocalDate.ofEpochDay(readVarint(buffer)) : dueDate;
+            if (item == null || member == null) {
+                dangling++;
+                continue;
+            }
+            loans.add(new Loan(item, member, borrowDate, dueDate, accruedThrough));
+        }
+        if (dangling > 0) {
+            System.err.println("Warning: skipped " + dangling + " loan(s) in " + path + " referencing unknown items or members.");
+        }
+        return new Snapshot(items, users, loans);
+    }
+
+    private static LibraryItem readItem(ByteBuffer buffer, String[] dictionary) throws IOException {
+        int type = (int) readVarint(buffer);
+        switch (type) {
+            case BOOK: {
+                String id = readString(buffer);
+                String title = readString(buffer);
+                String author = dictionary[(int) readVarint(buffer)];
+                String isbn = readString(buffer);
+                String status = dictionary[(int) readVarint(buffer)];
+                return Book.fromCsvFields(new String[] { id, title, author, isbn, status });
+            }
+            case MAGAZINE: {
+                String id = readString(buffer);
+                String title = readString(buffer);
+                String issueDate = dictionary[(int) readVarint(buffer)];
+                String status = dictionary[(int) readVarint(buffer)];
+                return Magazine.fromCsvFields(new String[] { id, title, issueDate, status });
+            }
+            case ARTICLE: {
+                String id = readString(buffer);
+                String title = readString(buffer);
+                String author = dictionary[(int) readVarint(buffer)];
+                String publication = dictionary[(int) readVarint(buffer)];
+                String status = dictionary[(int) readVarint(buffer)];
+                return Article.fromCsvFields(new String[] { id, title, author, publication, status });
+            }
+            default:
+                throw new IOException("Unknown item type tag " + type);
+        }
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        int length = (int) readVarint(buffer);
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static long readVarint(ByteBuffer buffer) {
+        long value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = buffer.get();
+            value |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        return value;
+    }
+
+    // Assigns each distinct repeated value a stable index in first-seen order
+    private static class Dictionary {
+        final List<String> values = new ArrayList<>();
+        final Map<String, Integer> indexes = new HashMap<>();
+
+        void intern(String value) {
+            indexes.computeIfAbsent(value, v -> {
+                values.add(v);
+                return values.size() - 1;
+            });
+        }
+
+        int indexOf(String value) {
+            return indexes.get(value);
+        }
+    }
+}
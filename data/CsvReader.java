@@ -0,0 +1,194 @@
+package data;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * A streaming delimited-file parser built on NIO.
+ * The file is read sequentially into one large heap buffer and tokenized in place, byte by byte,
+ * without regular expressions or per-line Strings; each record is handed over as an array of
+ * field values. Quoted fields may contain the delimiter, doubled quotes and line breaks.
+ * Input is decoded as UTF-8, whose multi-byte sequences never contain the ASCII delimiters.
+ */
+public final class CsvReader {
+
+    private static final int BUFFER_SIZE = 1 << 20;
+    private static final byte QUOTE = '"';
+    private static final byte LINE_FEED = '\n';
+    private static final byte CARRIAGE_RETURN = '\r';
+
+    // Word-at-a-time scanning: detects whether any of a long's eight bytes equals a given byte
+    private static final VarHandle LONG_VIEW = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+    private static final long LOW_BITS = 0x0101010101010101L;
+    private static final long HIGH_BITS = 0x8080808080808080L;
+    private static final long LINE_FEED_PATTERN = broadcast(LINE_FEED);
+    private static final long QUOTE_PATTERN = broadcast(QUOTE);
+    private static final long CARRIAGE_RETURN_PATTERN = broadcast(CARRIAGE_RETURN);
+
+    @FunctionalInterface
+    public interface RecordHandler {
+        void record(String[] fields);
+    }
+
+    private final byte delimiter;
+    private final long delimiterPattern;
+    private String[] fields = new String[8];
+    private int fieldCount;
+    // Holds a field's bytes only when it spans buffer refills or contains quotes and line breaks
+    private byte[] field = new byte[256];
+    private int fieldLength;
+    private boolean inQuotes;
+    private boolean closedQuote;
+    private boolean quotedField;
+    private long records;
+
+    private CsvReader(char delimiter) {
+        this.delimiter = (byte) delimiter;
+        this.delimiterPattern = broadcast(this.delimiter);
+    }
+
+    /**
+     * Parses the whole file, passing every non-blank record to the handler.
+     * Returns the number of records delivered.
+     */
+    public static long read(Path path, char delimiter, RecordHandler handler) throws IOException {
+        CsvReader reader = new CsvReader(delimiter);
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            int capacity = (int) Math.min(BUFFER_SIZE, Math.max(channel.size(), 1));
+            // The channel fills the chunk the parser scans, so bytes are not copied again after the read
+            byte[] chunk = new byte[capacity];
+            ByteBuffer buffer = ByteBuffer.wrap(chunk);
+            while (channel.read(buffer) != -1) {
+                reader.consume(chunk, buffer.position(), handler);
+                buffer.clear();
+            }
+        }
+        reader.finish(handler);
+        return reader.records;
+    }
+
+    // Unquoted fields that lie entirely within the chunk are decoded straight from it without copying.
+    private void consume(byte[] chunk, int length, RecordHandler handler) {
+        final byte delimiter = this.delimiter;
+        int segment = 0; // Start of the current field's bytes not yet copied out of the chunk
+        int i = 0;
+        while (i < length) {
+            if (inQuotes) {
+                while (i < length && chunk[i] != QUOTE) i++;
+                if (i == length) break;
+                appendSegment(chunk, segment, i);
+                segment = ++i;
+                inQuotes = false;
+                closedQuote = true;
+                continue;
+            }
+
+            // Skip ordinary bytes; every special byte is at or below the delimiter's value
+            int start = i;
+            // Skip eight bytes at a time while the word contains no special byte
+            while (i + Long.BYTES <= length && !containsSpecial((long) LONG_VIEW.get(chunk, i))) {
+                i += Long.BYTES;
+            }
+            if (i == length) break;
+            byte b = chunk[i];
+            while (b > delimiter || (b != delimiter && b != LINE_FEED && b != QUOTE && b != CARRIAGE_RETURN)) {
+                if (++i == length) break;
+                b = chunk[i];
+            }
+            if (i > start) closedQuote = false;
+            if (i == length) break;
+
+            if (b == QUOTE) {
+                if (closedQuote) {
+                    // An escaped "" inside a quoted field: this quote starts the next segment
+                    inQuotes = true;
+                    closedQuote = false;
+                } else if (fieldLength == 0 && i == segment) {
+                    segment = i + 1;
+                    inQuotes = true;
+                    quotedField = true;
+                }
+            } else {
+                closedQuote = false;
+                if (b == delimiter) {
+                    endField(chunk, segment, i);
+                    segment = i + 1;
+                } else if (b == LINE_FEED) {
+                    endField(chunk, segment, i);
+                    endRecord(handler);
+                    segment = i + 1;
+                } else {
+                    appendSegment(chunk, segment, i);
+                    segment = i + 1;
+                }
+            }
+            i++;
+        }
+        appendSegment(chunk, segment, length);
+    }
+
+    private boolean containsSpecial(long word) {
+        return hasZeroByte(word ^ delimiterPattern)
+            | hasZeroByte(word ^ LINE_FEED_PATTERN)
+            | hasZeroByte(word ^ QUOTE_PATTERN)
+            | hasZeroByte(word ^ CARRIAGE_RETURN_PATTERN);
+    }
+
+    private static boolean hasZeroByte(long word) {
+        return ((word - LOW_BITS) & ~word & HIGH_BITS) != 0;
+    }
+
+    private static long broadcast(byte b) {
+        return (b & 0xFFL) * LOW_BITS;
+    }
+
+    private void finish(RecordHandler handler) {
+        if (fieldLength > 0 || quotedField || fieldCount > 0) {
+            endField(field, 0, 0);
+            endRecord(handler);
+        }
+    }
+
+    private void appendSegment(byte[] chunk, int from, int to) {
+        int length = to - from;
+        if (length <= 0) return;
+        if (fieldLength + length > field.length) {
+            field = Arrays.copyOf(field, Math.max(field.length * 2, fieldLength + length));
+        }
+        System.arraycopy(chunk, from, field, fieldLength, length);
+        fieldLength += length;
+    }
+
+    private void endField(byte[] chunk, int from, int to) {
+        String value;
+        if (fieldLength == 0) {
+            value = new String(chunk, from, to - from, StandardCharsets.UTF_8);
+        } else {
+            appendSegment(chunk, from, to);
+            value = new String(field, 0, fieldLength, StandardCharsets.UTF_8);
+        }
+        if (fieldCount == fields.length) {
+            fields = Arrays.copyOf(fields, fieldCount * 2);
+        }
+        fields[fieldCount++] = value;
+        fieldLength = 0;
+        quotedField = false;
+    }
+
+    private void endRecord(RecordHandler handler) {
+        boolean blank = fieldCount == 1 && fields[0].trim().isEmpty();
+        if (!blank) {
+            handler.record(Arrays.copyOf(fields, fieldCount));
+            records++;
+        }
+        fieldCount = 0;
+    }
+}
@@ -1,67 +1,181 @@
 package data;
 
+import interfaces.IdGenerator;
+import metrics.Metrics;
+import metrics.OperationStats;
 import models.*;
+import store.ColumnarItemStore;
 import java.io.*;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashMap;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.IntSupplier;
 
 /**
  * Manages all data persistence operations.
- * This class is responsible for reading from and writing to CSV files.
+ * This class is responsible for reading from and writing to CSV files and the binary snapshot.
  * It encapsulates all file I/O logic, separating it from the main library business logic.
  */
 @SuppressWarnings("unused")
 public class DataManager {
 
+    // Used when no directory is given, relative to the working directory
     private static final String DATA_DIRECTORY = "data";
-    private static final String BOOKS_FILE = DATA_DIRECTORY + "/books.csv";
-    private static final String MAGAZINES_FILE = DATA_DIRECTORY + "/magazines.csv";
-    private static final String ARTICLES_FILE = DATA_DIRECTORY + "/articles.csv";
-    private static final String MEMBERS_FILE = DATA_DIRECTORY + "/members.csv";
-    private static final String LIBRARIANS_FILE = DATA_DIRECTORY + "/librarians.csv";
-    private static final String LOANS_FILE = DATA_DIRECTORY + "/loans.csv";
+
+    // Number of journal entries after which the CSV snapshots are rewritten
+    private static final int COMPACTION_THRESHOLD = 1000;
+
+    // IDs leased from an allocation record at a time
+    private static final int ID_BLOCK_SIZE = 100;
+
+    private static final Set<SnapshotFile> ITEM_FILES = EnumSet.of(SnapshotFile.BOOKS, SnapshotFile.MAGAZINES, SnapshotFile.ARTICLES);
+    private static final Set<SnapshotFile> USER_FILES = EnumSet.of(SnapshotFile.MEMBERS, SnapshotFile.LIBRARIANS);
+
+    private static final OperationStats SAVE_ITEMS_STATS = Metrics.operation("DataManager.saveLibraryItems");
+    private static final OperationStats SAVE_USERS_STATS = Metrics.operation("DataManager.saveUsers");
+    private static final OperationStats SAVE_LOANS_STATS = Metrics.operation("DataManager.saveLoans");
+    private static final OperationStats SAVE_HOLDS_STATS = Metrics.operation("DataManager.saveHolds");
+    private static final OperationStats SAVE_SNAPSHOT_STATS = Metrics.operation("DataManager.saveBinarySnapshot");
+    private static final OperationStats LOAD_SNAPSHOT_STATS = Metrics.operation("DataManager.loadSnapshot");
+    private static final OperationStats LOAD_ITEMS_STATS = Metrics.operation("DataManager.loadLibraryItems");
+    private static final OperationStats LOAD_USERS_STATS = Metrics.operation("DataManager.loadUsers");
+    private static final OperationStats LOAD_LOANS_STATS = Metrics.operation("DataManager.loadLoans");
+    private static final OperationStats LOAD_HOLDS_STATS = Metrics.operation("DataManager.loadHolds");
+    private static final OperationStats LOAD_ITEM_STORE_STATS = Metrics.operation("DataManager.loadItemStore");
+    private static final OperationStats JOURNAL_APPEND_STATS = Metrics.operation("DataManager.journalAppend");
+    private static final OperationStats JOURNAL_REPLAY_STATS = Metrics.operation("DataManager.replayJournal");
+    private static final OperationStats COMPACT_STATS = Metrics.operation("DataManager.compact");
+
+    private final String booksFile;
+    private final String magazinesFile;
+    private final String articlesFile;
+    private final String membersFile;
+    private final String librariansFile;
+    private final String loansFile;
+    private final String holdsFile;
+    private final String journalFile;
+    private final String snapshotFile;
+    private final String finesFile;
+    private final String dataDirectory;
+    private final List<LeasedIdGenerator> idGenerators = new ArrayList<>();
+    private final GroupCommitWriter committer;
+    private final MutationLog mutationLog;
+    private final FineLedger fineLedger;
+    // Snapshot files whose contents have changed since they were last written
+    private final Set<SnapshotFile> dirtyFiles = EnumSet.noneOf(SnapshotFile.class);
 
     public DataManager() {
+        this(DATA_DIRECTORY);
+    }
+
+    public DataManager(String dataDirectory) {
+        this(dataDirectory, PersistenceConfig.fromSystemProperties());
+    }
+
+    /**
+     * Keeps all snapshots, the journal and the fine ledger in the given directory,
+     * appending to the journal and ledger as the persistence configuration says.
+     */
+    public DataManager(String dataDirectory, PersistenceConfig config) {
+        this.booksFile = dataDirectory + "/books.csv";
+        this.magazinesFile = dataDirectory + "/magazines.csv";
+        this.articlesFile = dataDirectory + "/articles.csv";
+        this.membersFile = dataDirectory + "/members.csv";
+        this.librariansFile = dataDirectory + "/librarians.csv";
+        this.loansFile = dataDirectory + "/loans.csv";
+        this.holdsFile = dataDirectory + "/holds.csv";
+        this.journalFile = dataDirectory + "/journal.log";
+        this.snapshotFile = dataDirectory + "/library.snap";
+        this.finesFile = dataDirectory + "/fines.log";
+        this.dataDirectory = dataDirectory;
+
         // Ensure the data directory exists
         try {
-            Files.createDirectories(Paths.get(DATA_DIRECTORY));
+            Files.createDirectories(Paths.get(dataDirectory));
         } catch (IOException e) {
             System.err.println("Error creating data directory: " + e.getMessage());
         }
+        this.committer = config.isAsynchronous() ? new GroupCommitWriter(config.getFlushIntervalMillis(), config.getMaxBatchEntries()) : null;
+        // The journal is registered first: a fine must never reach the disk before the journal entries it was charged for
+        this.mutationLog = new MutationLog(new AppendOnlyFile(journalFile, "journal", config.getDurability(), committer));
+        this.fineLedger = new FineLedger(new AppendOnlyFile(finesFile, "fine ledger", config.getDurability(), committer));
+    }
+
+    /**
+     * Returns a generator that leases ID ranges from the named allocation record in the data directory,
+     * shared with every other process using the directory. The seed gives the first number if the record is missing.
+     */
+    public synchronized IdGenerator idGenerator(String name, IntSupplier seed) {
+        LeasedIdGenerator generator = new LeasedIdGenerator(Paths.get(dataDirectory, name + ".ids"), ID_BLOCK_SIZE, seed);
+        idGenerators.add(generator);
+        return generator;
+    }
+
+    /**
+     * Reads the per-member borrow limits from loan-limits.properties in the data directory.
+     */
+    public LoanLimits loadLoanLimits() {
+        return LoanLimits.load(Paths.get(dataDirectory, "loan-limits.properties"));
+    }
+
+    /**
+     * The fine ledger lives in its own append-only file and is never compacted.
+     */
+    public FineLedger getFineLedger() {
+        return fineLedger;
     }
 
-    // Generic file writing method
-    private <T> void writeToFile(String filePath, List<T> items, ToCsvString<T> converter) {
-        try (PrintWriter writer = new PrintWriter(new FileWriter(filePath))) {
+    // Generic file writing method. Writes to a temporary file first so a crash never leaves a half-written snapshot.
+    // Bytes written and failures are counted against the given operation.
+    // Returns false if the file could not be written.
+    private <T> boolean writeToFile(OperationStats stats, String filePath, List<T> items, ToCsvString<T> converter) {
+        Path target = Paths.get(filePath);
+        Path temp = Paths.get(filePath + ".tmp");
+        try (PrintWriter writer = new PrintWriter(Files.newBufferedWriter(temp))) {
             for (T item : items) {
                 writer.println(converter.convert(item));
             }
+            if (writer.checkError()) throw new IOException("write failed");
         } catch (IOException e) {
             System.err.println("Error writing to file " + filePath + ": " + e.getMessage());
+            stats.recordError();
+            return false;
+        }
+        try {
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            stats.addBytesWritten(Files.size(target));
+            return true;
+        } catch (IOException e) {
+            System.err.println("Error replacing file " + filePath + ": " + e.getMessage());
+            stats.recordError();
+            return false;
         }
     }
 
-    // Generic file reading method
-    private <T> List<T> readFromFile(String filePath, FromCsvString<T> converter) {
+    // Generic file reading method. Streams the file through CsvReader and hands each record's fields to the converter.
+    // Bytes read and failures are counted against the given operation.
+    private <T> List<T> readFromFile(OperationStats stats, String filePath, char delimiter, FromCsvFields<T> converter) {
         List<T> items = new ArrayList<>();
         File file = new File(filePath);
         if (!file.exists()) {
             return items; // Return empty list if file doesn't exist
         }
 
-        try (BufferedReader reader = new BufferedReader(new FileReader(filePath))) {
-            String line;
-            while ((line = reader.readLine()) != null) {
-                if (!line.trim().isEmpty()) {
-                    items.add(converter.convert(line));
-                }
-            }
+        try {
+            CsvReader.read(file.toPath(), delimiter, fields -> items.add(converter.convert(fields)));
+            stats.addBytesRead(file.length());
         } catch (IOException e) {
             System.err.println("Error reading from file " + filePath + ": " + e.getMessage());
+            stats.recordError();
         }
         return items;
     }
@@ -69,39 +183,424 @@ public class DataManager {
     // --- Public Save Methods ---
 
     public void saveLibraryItems(List<LibraryItem> items) {
-        writeToFile(BOOKS_FILE, items.stream().filter(i -> i instanceof Book).map(i -> (Book) i).collect(Collectors.toList()), Book::toCsvString);
-        writeToFile(MAGAZINES_FILE, items.stream().filter(i -> i instanceof Magazine).map(i -> (Magazine) i).collect(Collectors.toList()), Magazine::toCsvString);
-        writeToFile(ARTICLES_FILE, items.stream().filter(i -> i instanceof Article).map(i -> (Article) i).collect(Collectors.toList()), Article::toCsvString);
+        saveLibraryItems(items, ITEM_FILES);
+    }
+
+    /**
+     * Rewrites only the given item files, partitioning the inventory in a single pass.
+     * Returns the files that could not be written.
+     */
+    private Set<SnapshotFile> saveLibraryItems(List<LibraryItem> items, Set<SnapshotFile> files) {
+        Set<SnapshotFile> failed = EnumSet.noneOf(SnapshotFile.class);
+        if (Collections.disjoint(files, ITEM_FILES)) return failed;
+        long start = System.nanoTime();
+        List<Book> books = new ArrayList<>();
+        List<Magazine> magazines = new ArrayList<>();
+        List<Article> articles = new ArrayList<>();
+        for (LibraryItem item : items) {
+            if (item instanceof Book) {
+                if (files.contains(SnapshotFile.BOOKS)) books.add((Book) item);
+            } else if (item instanceof Magazine) {
+                if (files.contains(SnapshotFile.MAGAZINES)) magazines.add((Magazine) item);
+            } else if (item instanceof Article) {
+                if (files.contains(SnapshotFile.ARTICLES)) articles.add((Article) item);
+            }
+        }
+        if (files.contains(SnapshotFile.BOOKS) && !writeToFile(SAVE_ITEMS_STATS, booksFile, books, Book::toCsvString)) {
+            failed.add(SnapshotFile.BOOKS);
+        }
+        if (files.contains(SnapshotFile.MAGAZINES) && !writeToFile(SAVE_ITEMS_STATS, magazinesFile, magazines, Magazine::toCsvString)) {
+            failed.add(SnapshotFile.MAGAZINES);
+        }
+        if (files.contains(SnapshotFile.ARTICLES) && !writeToFile(SAVE_ITEMS_STATS, articlesFile, articles, Article::toCsvString)) {
+            failed.add(SnapshotFile.ARTICLES);
+        }
+        SAVE_ITEMS_STATS.record(start);
+        return failed;
     }
 
     public void saveUsers(List<User> users) {
-        writeToFile(MEMBERS_FILE, users.stream().filter(u -> u instanceof Member).map(u -> (Member) u).collect(Collectors.toList()), Member::toCsvString);
-        writeToFile(LIBRARIANS_FILE, users.stream().filter(u -> u instanceof Librarian).map(u -> (Librarian) u).collect(Collectors.toList()), Librarian::toCsvString);
+        saveUsers(users, USER_FILES);
+    }
+
+    private Set<SnapshotFile> saveUsers(List<User> users, Set<SnapshotFile> files) {
+        Set<SnapshotFile> failed = EnumSet.noneOf(SnapshotFile.class);
+        if (Collections.disjoint(files, USER_FILES)) return failed;
+        long start = System.nanoTime();
+        List<Member> members = new ArrayList<>();
+        List<Librarian> librarians = new ArrayList<>();
+        for (User user : users) {
+            if (user instanceof Member) {
+                if (files.contains(SnapshotFile.MEMBERS)) members.add((Member) user);
+            } else if (user instanceof Librarian) {
+                if (files.contains(SnapshotFile.LIBRARIANS)) librarians.add((Librarian) user);
+            }
+        }
+        if (files.contains(SnapshotFile.MEMBERS) && !writeToFile(SAVE_USERS_STATS, membersFile, members, Member::toCsvString)) {
+            failed.add(SnapshotFile.MEMBERS);
+        }
+        if (files.contains(SnapshotFile.LIBRARIANS) && !writeToFile(SAVE_USERS_STATS, librariansFile, librarians, Librarian::toCsvString)) {
+            failed.add(SnapshotFile.LIBRARIANS);
+        }
+        SAVE_USERS_STATS.record(start);
+        return failed;
+    }
+
+    public boolean saveLoans(List<Loan> loans) {
+        long start = System.nanoTime();
+        boolean saved = writeToFile(SAVE_LOANS_STATS, loansFile, loans, Loan::toCsvString);
+        SAVE_LOANS_STATS.record(start);
+        return saved;
     }
 
-    public void saveLoans(List<Loan> loans) {
-        writeToFile(LOANS_FILE, loans, Loan::toCsvString);
+    public boolean saveHolds(List<Hold> holds) {
+        long start = System.nanoTime();
+        boolean saved = writeToFile(SAVE_HOLDS_STATS, holdsFile, holds, Hold::toCsvString);
+        SAVE_HOLDS_STATS.record(start);
+        return saved;
+    }
+
+    public boolean saveBinarySnapshot(List<LibraryItem> items, List<User> users, List<Loan> loans) {
+        long start = System.nanoTime();
+        boolean saved = false;
+        try {
+            Path snapshotPath = Paths.get(snapshotFile);
+            BinarySnapshot.write(snapshotPath, items, users, loans);
+            SAVE_SNAPSHOT_STATS.addBytesWritten(Files.size(snapshotPath));
+            saved = true;
+        } catch (IOException e) {
+            System.err.println("Error writing snapshot " + snapshotFile + ": " + e.getMessage());
+            SAVE_SNAPSHOT_STATS.recordError();
+        }
+        SAVE_SNAPSHOT_STATS.record(start);
+        return saved;
     }
 
     // --- Public Load Methods ---
 
+    /**
+     * Loads the full library state, preferring the binary snapshot and falling back to the CSV files.
+     */
+    public Snapshot loadSnapshot() {
+        long start = System.nanoTime();
+        Path snapshotPath = Paths.get(snapshotFile);
+        Snapshot snapshot = null;
+        if (Files.exists(snapshotPath)) {
+            try {
+                snapshot = BinarySnapshot.read(snapshotPath);
+                LOAD_SNAPSHOT_STATS.addBytesRead(Files.size(snapshotPath));
+            } catch (IOException | RuntimeException e) {
+                System.err.println("Error reading snapshot " + snapshotFile + ": " + e.getMessage() + ". Falling back to CSV files.");
+                LOAD_SNAPSHOT_STATS.recordError();
+            }
+        }
+        if (snapshot == null) {
+            snapshot = loadCsvSnapshot();
+        }
+        LOAD_SNAPSHOT_STATS.record(start);
+        return snapshot;
+    }
+
+    public Snapshot loadCsvSnapshot() {
+        List<LibraryItem> items = loadLibraryItems();
+        List<User> users = loadUsers();
+        return new Snapshot(items, users, loadLoans(items, users));
+    }
+
     public List<LibraryItem> loadLibraryItems() {
+        long start = System.nanoTime();
         List<LibraryItem> items = new ArrayList<>();
-        items.addAll(readFromFile(BOOKS_FILE, Book::fromCsvString));
-        items.addAll(readFromFile(MAGAZINES_FILE, Magazine::fromCsvString));
-        items.addAll(readFromFile(ARTICLES_FILE, Article::fromCsvString));
+        items.addAll(readFromFile(LOAD_ITEMS_STATS, booksFile, Book.DELIMITER, Book::fromCsvFields));
+        items.addAll(readFromFile(LOAD_ITEMS_STATS, magazinesFile, Magazine.DELIMITER, Magazine::fromCsvFields));
+        items.addAll(readFromFile(LOAD_ITEMS_STATS, articlesFile, Article.DELIMITER, Article::fromCsvFields));
+        LOAD_ITEMS_STATS.record(start);
         return items;
     }
 
+    /**
+     * Streams the item CSVs straight into a columnar store, without keeping an object per item,
+     * then applies the item and status entries journaled since the last compaction.
+     */
+    public ColumnarItemStore loadItemStore() {
+        long start = System.nanoTime();
+        ColumnarItemStore store = new ColumnarItemStore();
+        readIntoStore(booksFile, Book.DELIMITER, ColumnarItemStore.BOOK, store);
+        readIntoStore(magazinesFile, Magazine.DELIMITER, ColumnarItemStore.MAGAZINE, store);
+        readIntoStore(articlesFile, Article.DELIMITER, ColumnarItemStore.ARTICLE, store);
+        mutationLog.read(new ItemStoreReplayer(store));
+        LOAD_ITEM_STORE_STATS.record(start);
+        return store;
+    }
+
+    private void readIntoStore(String filePath, char delimiter, byte type, ColumnarItemStore store) {
+        File file = new File(filePath);
+        if (!file.exists()) return;
+        try {
+            CsvReader.read(file.toPath(), delimiter, fields -> {
+                try {
+                    store.addRecord(type, fields);
+                } catch (RuntimeException e) {
+                    System.err.println("Skipping malformed record '" + String.join(String.valueOf(delimiter), fields) + "' in " + filePath + ": " + e.getMessage());
+                    LOAD_ITEM_STORE_STATS.recordError();
+                }
+            });
+            LOAD_ITEM_STORE_STATS.addBytesRead(file.length());
+        } catch (IOException e) {
+            System.err.println("Error reading from file " + filePath + ": " + e.getMessage());
+            LOAD_ITEM_STORE_STATS.recordError();
+        }
+    }
+
+    // Only items and their statuses live in the columnar store; every other journal entry is skipped
+    private static class ItemStoreReplayer implements MutationLog.Handler {
+        private final ColumnarItemStore store;
+
+        ItemStoreReplayer(ColumnarItemStore store) {
+            this.store = store;
+        }
+
+        @Override
+        public void itemAdded(LibraryItem item) {
+            store.add(item);
+        }
+
+        @Override
+        public void statusChanged(String itemId, ItemStatus status) {
+            store.setStatus(itemId, status);
+        }
+
+        @Override
+        public void loanOpened(String itemId, String memberId, LocalDate borrowDate, LocalDate dueDate) {
+        }
+
+        @Override
+        public void loanClosed(String itemId) {
+        }
+
+        @Override
+        public void loanAccrued(String itemId, LocalDate accruedThrough) {
+        }
+
+        @Override
+        public void memberRegistered(Member member) {
+        }
+
+        @Override
+        public void holdPlaced(String itemId, String memberId, LocalDate placedOn) {
+        }
+
+        @Override
+        public void holdReady(String itemId, String memberId, LocalDate expiresOn) {
+        }
+
+        @Override
+        public void holdRemoved(String itemId, String memberId) {
+        }
+    }
+
     public List<User> loadUsers() {
+        long start = System.nanoTime();
         List<User> users = new ArrayList<>();
-        users.addAll(readFromFile(MEMBERS_FILE, Member::fromCsvString));
-        users.addAll(readFromFile(LIBRARIANS_FILE, Librarian::fromCsvString));
+        users.addAll(readFromFile(LOAD_USERS_STATS, membersFile, Member.DELIMITER, Member::fromCsvFields));
+        users.addAll(readFromFile(LOAD_USERS_STATS, librariansFile, Librarian.DELIMITER, Librarian::fromCsvFields));
+        LOAD_USERS_STATS.record(start);
         return users;
     }
 
     public List<Loan> loadLoans(List<LibraryItem> allItems, List<User> allUsers) {
-        return readFromFile(LOANS_FILE, line -> Loan.fromCsvString(line, allItems, allUsers));
+        long start = System.nanoTime();
+        // Build the ID lookups once so each loan resolves its references in constant time
+        Map<String, LibraryItem> itemsById = new HashMap<>(allItems.size() * 2);
+        for (LibraryItem item : allItems) {
+            itemsById.put(item.getItemId(), item);
+        }
+        Map<String, Member> membersById = new HashMap<>(allUsers.size() * 2);
+        for (User user : allUsers) {
+            if (user instanceof Member) {
+                membersById.put(((Member) user).getMemberId(), (Member) user);
+            }
+        }
+
+        List<Loan> loans = readFromFile(LOAD_LOANS_STATS, loansFile, Loan.DELIMITER, fields -> Loan.fromCsvFields(fields, itemsById, membersById));
+        int total = loans.size();
+        loans.removeIf(loan -> loan == null);
+        int dangling = total - loans.size();
+        if (dangling > 0) {
+            System.err.println("Warning: skipped " + dangling + " loan(s) in " + loansFile + " referencing unknown items or members.");
+        }
+        LOAD_LOANS_STATS.record(start);
+        return loans;
+    }
+
+    /**
+     * Loads the hold queues, in queue order, resolving references through the given ID lookups.
+     */
+    public List<Hold> loadHolds(Map<String, LibraryItem> itemsById, Map<String, Member> membersById) {
+        long start = System.nanoTime();
+        List<Hold> holds = readFromFile(LOAD_HOLDS_STATS, holdsFile, Hold.DELIMITER, fields -> Hold.fromCsvFields(fields, itemsById, membersById));
+        int total = holds.size();
+        holds.removeIf(hold -> hold == null);
+        int dangling = total - holds.size();
+        if (dangling > 0) {
+            System.err.println("Warning: skipped " + dangling + " hold(s) in " + holdsFile + " referencing unknown items or members.");
+        }
+        LOAD_HOLDS_STATS.record(start);
+        return holds;
+    }
+
+    // --- Journal Methods ---
+
+    public void logItemAdded(LibraryItem item) {
+        logBatch(new MutationLog.Batch().itemAdded(item));
+    }
+
+    public void logStatusChanged(LibraryItem item) {
+        logBatch(new MutationLog.Batch().statusChanged(item));
+    }
+
+    public void logLoanOpened(Loan loan) {
+        logBatch(new MutationLog.Batch().loanOpened(loan));
+    }
+
+    public void logLoanClosed(Loan loan) {
+        logBatch(new MutationLog.Batch().loanClosed(loan));
+    }
+
+    public void logMemberRegistered(Member member) {
+        logBatch(new MutationLog.Batch().memberRegistered(member));
+    }
+
+    /**
+     * Appends all entries of a batch to the journal in one write and marks the snapshot files it touches as dirty.
+     */
+    public void logBatch(MutationLog.Batch batch) {
+        if (batch.size() == 0) return;
+        long start = System.nanoTime();
+        markDirty(batch.touched());
+        if (mutationLog.append(batch)) {
+            JOURNAL_APPEND_STATS.addBytesWritten(batch.length());
+        } else {
+            JOURNAL_APPEND_STATS.recordError();
+        }
+        JOURNAL_APPEND_STATS.record(start);
+    }
+
+    /**
+     * Replays the journal tail on top of the loaded snapshot and returns the number of entries applied.
+     */
+    public int replayJournal(MutationLog.Handler handler) {
+        long start = System.nanoTime();
+        int replayed = mutationLog.replay(handler);
+        if (replayed > 0) {
+            // Replayed entries may touch any collection; the next compaction rewrites everything once
+            markDirty(EnumSet.allOf(SnapshotFile.class));
+        }
+        JOURNAL_REPLAY_STATS.record(start);
+        return replayed;
+    }
+
+    public boolean needsCompaction() {
+        return mutationLog.getEntryCount() >= COMPACTION_THRESHOLD;
+    }
+
+    /**
+     * Brings the snapshots up to date and truncates the journal. Only the CSV files whose contents changed
+     * since they were last written are rewritten, and the binary snapshot only if items, users or loans changed.
+     * If any write fails, the journal is kept and the failed files stay dirty for the next compaction.
+     */
+    public void compact(List<LibraryItem> items, List<User> users, List<Loan> loans, List<Hold> holds) {
+        Set<SnapshotFile> dirty;
+        synchronized (dirtyFiles) {
+            dirty = EnumSet.copyOf(dirtyFiles);
+            dirtyFiles.clear();
+        }
+        compact(items, users, loans, holds, dirty);
+    }
+
+    /**
+     * Rewrites every snapshot file regardless of what changed, e.g. to write out a generated library.
+     */
+    public void saveAll(List<LibraryItem> items, List<User> users, List<Loan> loans, List<Hold> holds) {
+        synchronized (dirtyFiles) {
+            dirtyFiles.clear();
+        }
+        compact(items, users, loans, holds, EnumSet.allOf(SnapshotFile.class));
+    }
+
+    private void compact(List<LibraryItem> items, List<User> users, List<Loan> loans, List<Hold> holds, Set<SnapshotFile> dirty) {
+        if (dirty.isEmpty() && mutationLog.getEntryCount() == 0) return;
+        long start = System.nanoTime();
+        Set<SnapshotFile> failed = EnumSet.noneOf(SnapshotFile.class);
+        if (dirty.stream().anyMatch(SnapshotFile::inBinarySnapshot) && !saveBinarySnapshot(items, users, loans)) {
+            dirty.stream().filter(SnapshotFile::inBinarySnapshot).forEach(failed::add);
+        }
+        failed.addAll(saveLibraryItems(items, dirty));
+        failed.addAll(saveUsers(users, dirty));
+        if (dirty.contains(SnapshotFile.LOANS) && !saveLoans(loans)) {
+            failed.add(SnapshotFile.LOANS);
+        }
+        if (dirty.contains(SnapshotFile.HOLDS) && !saveHolds(holds)) {
+            failed.add(SnapshotFile.HOLDS);
+        }
+
+        if (failed.isEmpty()) {
+            mutationLog.truncate();
+        } else {
+            markDirty(failed);
+        }
+        COMPACT_STATS.record(start);
+    }
+
+    /**
+     * Marks snapshot files as changed outside the journal, e.g. by a bulk import, so the next compaction rewrites them.
+     */
+    public void markDirty(Set<SnapshotFile> files) {
+        synchronized (dirtyFiles) {
+            dirtyFiles.addAll(files);
+        }
+    }
+
+    // --- Format Conversion ---
+
+    /**
+     * Rebuilds the binary snapshot from the CSV files, e.g. after importing edited CSVs.
+     */
+    public void convertCsvToBinary() {
+        Snapshot snapshot = loadCsvSnapshot();
+        saveBinarySnapshot(snapshot.getItems(), snapshot.getUsers(), snapshot.getLoans());
+    }
+
+    /**
+     * Regenerates the CSV files from the binary snapshot, e.g. to export the catalog.
+     */
+    public void convertBinaryToCsv() throws IOException {
+        Snapshot snapshot = BinarySnapshot.read(Paths.get(snapshotFile));
+        saveLibraryItems(snapshot.getItems());
+        saveUsers(snapshot.getUsers());
+        saveLoans(snapshot.getLoans());
+    }
+
+    /**
+     * Waits until every queued journal and ledger append has been written. A no-op for synchronous writes.
+     */
+    public void flush() {
+        if (committer != null) {
+            committer.flush();
+        }
+    }
+
+    /**
+     * Writes any queued appends, stops the background writer and releases the journal and ledger files.
+     */
+    public void close() {
+        if (committer != null) {
+            committer.close();
+        }
+        mutationLog.close();
+        fineLedger.close();
+        synchronized (this) {
+            idGenerators.forEach(LeasedIdGenerator::close);
+        }
     }
 
     // --- Functional interfaces for converters ---
@@ -111,7 +610,7 @@ public class DataManager {
     }
 
     @FunctionalInterface
-    interface FromCsvString<T> {
-        T convert(String csvLine);
+    interface FromCsvFields<T> {
+        T convert(String[] fields);
     }
 }
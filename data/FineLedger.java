@@ -0,0 +1,188 @@
+package data;
+
+import models.*;
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.function.Function;
+
+/**
+ * A durable, append-only ledger of fine assessments and payments.
+ *
+ * Every assessment and payment is appended to the ledger file; nothing is ever rewritten.
+ * Alongside the file, the ledger keeps each member's running balance and a ranking of members
+ * by balance, so "how much does M042 owe" is O(1) and "top debtors" is O(k log n).
+ * At startup the in-memory state is rebuilt from the file in one streaming pass.
+ * Balances are kept in cents to avoid floating-point drift.
+ */
+public class FineLedger {
+
+    private static final char DELIMITER = ';';
+    private static final String ASSESSED = "ASSESSED";
+    private static final String PAID = "PAID";
+
+    private final AppendOnlyFile file;
+
+    private final Map<String, Long> balancesInCents = new HashMap<>();
+    private final Map<String, Fine> unpaidFines = new HashMap<>();
+    private final Map<String, Set<Fine>> unpaidFinesByMember = new HashMap<>();
+    // Members with a positive balance, highest balance first
+    private final TreeSet<String> debtors = new TreeSet<>((a, b) -> {
+        int byBalance = Long.compare(balancesInCents.get(b), balancesInCents.get(a));
+        return byBalance != 0 ? byBalance : a.compareTo(b);
+    });
+
+    public FineLedger(String filePath) {
+        this(new AppendOnlyFile(filePath, "fine ledger", PersistenceConfig.Durability.NONE, null));
+    }
+
+    FineLedger(AppendOnlyFile file) {
+        this.file = file;
+    }
+
+    // --- Recording ---
+
+    public boolean recordAssessment(Fine fine) {
+        return recordAssessments(Collections.singletonList(fine));
+    }
+
+    /**
+     * Appends all assessments with a single write and applies them to the running balances.
+     * Returns false, applying none of them, if a synchronous write failed.
+     */
+    public synchronized boolean recordAssessments(List<Fine> fines) {
+        if (fines.isEmpty()) return true;
+        StringBuilder entries = new StringBuilder();
+        for (Fine fine : fines) {
+            entries.append(CsvFormat.join(DELIMITER, ASSESSED, fine.getFineId(), fine.getMemberId(), fine.getItemId(),
+                toCents(fine.getAmount()) + "", fine.getDateAssessed().toString())).append(System.lineSeparator());
+        }
+        if (!file.append(entries.toString())) return false;
+        fines.forEach(this::applyAssessment);
+        return true;
+    }
+
+    /**
+     * Records payment of an unpaid fine. Returns false, changing nothing, if no unpaid fine has that ID
+     * or the payment could not be written. The payment is written before this returns, even when other
+     * appends are group-committed, so a payment reported as recorded survives a restart.
+     */
+    public synchronized boolean recordPayment(String fineId, LocalDate paidOn) {
+        Fine fine = unpaidFines.get(fineId);
+        if (fine == null) return false;
+        // Queued entries, including the fine's assessment, must reach the file first
+        file.flush();
+        if (!file.write(CsvFormat.join(DELIMITER, PAID, fineId, paidOn.toString()) + System.lineSeparator())) return false;
+        applyPayment(fine);
+        return true;
+    }
+
+    // --- Queries ---
+
+    public synchronized double getBalance(String memberId) {
+        return balancesInCents.getOrDefault(memberId, 0L) / 100.0;
+    }
+
+    public synchronized List<Fine> getUnpaidFines(String memberId) {
+        return new ArrayList<>(unpaidFinesByMember.getOrDefault(memberId, Collections.emptySet()));
+    }
+
+    public synchronized Fine getUnpaidFine(String fineId) {
+        return unpaidFines.get(fineId);
+    }
+
+    /**
+     * Returns up to k members with the highest outstanding balances, highest first.
+     */
+    public synchronized List<Map.Entry<String, Double>> getTopDebtors(int k) {
+        List<Map.Entry<String, Double>> top = new ArrayList<>();
+        for (String memberId : debtors) {
+            if (top.size() == k) break;
+            top.add(new AbstractMap.SimpleImmutableEntry<>(memberId, balancesInCents.get(memberId) / 100.0));
+        }
+        return top;
+    }
+
+    // --- Rebuild ---
+
+    /**
+     * Rebuilds balances and unpaid fines by streaming over the ledger file once.
+     */
+    public synchronized void load(Function<String, Member> memberLookup) {
+        File ledger = file.getFile();
+        if (!ledger.exists()) return;
+        String highestFineId = null;
+        int highest = 0;
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(ledger), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.trim().isEmpty()) continue;
+                String[] parts = CsvFormat.split(line, DELIMITER);
+                try {
+                    if (parts[0].equals(ASSESSED)) {
+                        Fine fine = new Fine(parts[1], memberLookup.apply(parts[2]), parts[2], parts[3],
+                            Long.parseLong(parts[4]) / 100.0, LocalDate.parse(parts[5]), false);
+                        applyAssessment(fine);
+                        int number = Integer.parseInt(parts[1].replace("F", ""));
+                        if (number > highest) {
+                            highest = number;
+                            highestFineId = parts[1];
+                        }
+                    } else if (parts[0].equals(PAID)) {
+                        Fine fine = unpaidFines.get(parts[1]);
+                        if (fine != null) applyPayment(fine);
+                    }
+                } catch (RuntimeException e) {
+                    System.err.println("Skipping malformed fine ledger entry '" + line + "': " + e.getMessage());
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("Error reading fine ledger " + ledger + ": " + e.getMessage());
+        }
+        Fine.syncNextId(highestFineId);
+    }
+
+    // --- Balance Maintenance ---
+
+    private void applyAssessment(Fine fine) {
+        unpaidFines.put(fine.getFineId(), fine);
+        unpaidFinesByMember.computeIfAbsent(fine.getMemberId(), id -> new LinkedHashSet<>()).add(fine);
+        adjustBalance(fine.getMemberId(), toCents(fine.getAmount()));
+    }
+
+    private void applyPayment(Fine fine) {
+        fine.markAsPaid();
+        unpaidFines.remove(fine.getFineId());
+        Set<Fine> memberFines = unpaidFinesByMember.get(fine.getMemberId());
+        if (memberFines != null) {
+            memberFines.remove(fine);
+            if (memberFines.isEmpty()) unpaidFinesByMember.remove(fine.getMemberId());
+        }
+        adjustBalance(fine.getMemberId(), -toCents(fine.getAmount()));
+    }
+
+    // The ranking is keyed on the balance, so a member is taken out before it changes and put back after
+    private void adjustBalance(String memberId, long deltaInCents) {
+        if (balancesInCents.containsKey(memberId)) {
+            debtors.remove(memberId);
+        }
+        long balance = balancesInCents.getOrDefault(memberId, 0L) + deltaInCents;
+        if (balance == 0) {
+            balancesInCents.remove(memberId);
+            return;
+        }
+        balancesInCents.put(memberId, balance);
+        if (balance > 0) {
+            debtors.add(memberId);
+        }
+    }
+
+    private static long toCents(double amount) {
+        return Math.round(amount * 100);
+    }
+
+    public void close() {
+        file.close();
+    }
+}
@@ -0,0 +1,168 @@
+package data;
+
+import metrics.Metrics;
+import metrics.OperationStats;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writes queued appends on a background thread, coalescing everything pending into one write
+ * (and at most one fsync) per file per batch. A batch is written once the flush interval has
+ * passed since its first entry, once it reaches the maximum size, or as soon as a flush is requested.
+ *
+ * Within a batch, files are written in the order they were registered. A file whose entries
+ * depend on another's, like the fine ledger on the journal, must therefore be registered after it.
+ */
+public class GroupCommitWriter {
+
+    private static final OperationStats COMMIT_STATS = Metrics.operation("GroupCommitWriter.commit");
+
+    // An entry queued for a file; entries without a target are flush markers
+    private static class Pending {
+        final AppendOnlyFile target;
+        final String text;
+        final CountDownLatch written;
+
+        Pending(AppendOnlyFile target, String text, CountDownLatch written) {
+            this.target = target;
+            this.text = text;
+            this.written = written;
+        }
+    }
+
+    private final BlockingQueue<Pending> queue = new LinkedBlockingQueue<>();
+    private final List<AppendOnlyFile> targets = new CopyOnWriteArrayList<>();
+    private final long flushIntervalNanos;
+    private final int maxBatchEntries;
+    private final Thread thread;
+    private boolean closed;
+
+    public GroupCommitWriter(long flushIntervalMillis, int maxBatchEntries) {
+        this.flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(flushIntervalMillis);
+        this.maxBatchEntries = maxBatchEntries;
+        this.thread = new Thread(this::run, "group-commit-writer");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    void register(AppendOnlyFile target) {
+        targets.add(target);
+    }
+
+    /**
+     * Queues text for the target. Returns false once the writer is closed; the caller then writes it itself.
+     */
+    synchronized boolean submit(AppendOnlyFile target, String text) {
+        if (closed) return false;
+        queue.add(new Pending(target, text, null));
+        return true;
+    }
+
+    /**
+     * Blocks until every entry queued before the call has been written.
+     */
+    public void flush() {
+        CountDownLatch written = new CountDownLatch(1);
+        synchronized (this) {
+            if (closed && !thread.isAlive()) return;
+            queue.add(new Pending(null, null, written));
+        }
+        awaitUninterruptibly(written);
+    }
+
+    /**
+     * Writes everything still queued and stops the background thread. Later appends are written synchronously.
+     */
+    public void close() {
+        synchronized (this) {
+            if (closed) return;
+            closed = true;
+        }
+        flush();
+        thread.interrupt();
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // --- Background Writer ---
+
+    private void run() {
+        List<Pending> batch = new ArrayList<>();
+        while (true) {
+            try {
+                batch.add(queue.take());
+                collect(batch);
+            } catch (InterruptedException e) {
+                // Interrupted by close() after its final flush; anything left is written below
+                queue.drainTo(batch);
+                commit(batch);
+                return;
+            }
+            commit(batch);
+            batch.clear();
+        }
+    }
+
+    // Lingers for more entries until the interval passes, the batch fills or a flush marker arrives
+    private void collect(List<Pending> batch) throws InterruptedException {
+        long deadline = System.nanoTime() + flushIntervalNanos;
+        while (batch.size() < maxBatchEntries && batch.get(batch.size() - 1).target != null) {
+            Pending next = queue.poll();
+            if (next == null) {
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) return;
+                next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                if (next == null) return;
+            }
+            batch.add(next);
+        }
+    }
+
+    private void commit(List<Pending> batch) {
+        long start = System.nanoTime();
+        Map<AppendOnlyFile, StringBuilder> byTarget = new IdentityHashMap<>();
+        for (Pending pending : batch) {
+            if (pending.target != null) {
+                byTarget.computeIfAbsent(pending.target, target -> new StringBuilder()).append(pending.text);
+            }
+        }
+        if (!byTarget.isEmpty()) {
+            for (AppendOnlyFile target : targets) {
+                StringBuilder text = byTarget.get(target);
+                if (text == null) continue;
+                if (target.write(text.toString())) {
+                    COMMIT_STATS.addBytesWritten(text.length());
+                } else {
+                    COMMIT_STATS.recordError();
+                }
+            }
+            COMMIT_STATS.record(start);
+        }
+        for (Pending pending : batch) {
+            if (pending.written != null) pending.written.countDown();
+        }
+    }
+
+    private static void awaitUninterruptibly(CountDownLatch latch) {
+        boolean interrupted = false;
+        while (true) {
+            try {
+                latch.await();
+                break;
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) Thread.currentThread().interrupt();
+    }
+}
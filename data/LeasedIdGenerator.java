@@ -0,0 +1,127 @@
+package data;
+
+import interfaces.IdGenerator;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.IntSupplier;
+
+/**
+ * Hands out IDs from contiguous ranges leased from a shared allocation record, so several processes
+ * working on one data directory never assign the same ID.
+ *
+ * The record is a small file holding the first number not yet leased to anyone. Leasing a block locks
+ * the file, advances the number and forces it to disk. Between leases, IDs come from the local block
+ * with a single atomic increment. On close, the unused tail of the block is given back if no other
+ * process has leased since, so a single process does not leave a gap at every restart.
+ */
+public class LeasedIdGenerator implements IdGenerator {
+
+    // FileLock is held per JVM, not per thread; leases within one process are serialized here
+    private static final Object LEASE_LOCK = new Object();
+
+    // Numbers [next, limit) belong to this process
+    private static class Block {
+        final AtomicInteger next;
+        final int limit;
+
+        Block(int first, int limit) {
+            this.next = new AtomicInteger(first);
+            this.limit = limit;
+        }
+    }
+
+    private final Path record;
+    private final int blockSize;
+    private final IntSupplier seed;
+    // Starts empty, so the first ID leases the first block
+    private final AtomicReference<Block> block = new AtomicReference<>(new Block(0, 0));
+
+    /**
+     * The seed supplies the first number when the record does not exist yet, e.g. one past the highest
+     * ID in data written before leasing was introduced. It is consulted at most once.
+     */
+    public LeasedIdGenerator(Path record, int blockSize, IntSupplier seed) {
+        this.record = record;
+        this.blockSize = blockSize;
+        this.seed = seed;
+    }
+
+    @Override
+    public int next() {
+        return reserve(1);
+    }
+
+    @Override
+    public int reserve(int count) {
+        if (count > blockSize) {
+            // Larger than a block: lease a dedicated range and leave the current block in place
+            return lease(count);
+        }
+        while (true) {
+            Block current = block.get();
+            int first = current.next.getAndAdd(count);
+            if (first + count <= current.limit) return first;
+            synchronized (this) {
+                // Only the first thread to find the block exhausted replaces it
+                if (block.get() == current) {
+                    int leased = lease(blockSize);
+                    block.set(new Block(leased, leased + blockSize));
+                }
+            }
+        }
+    }
+
+    // Advances the shared record by count under the file lock and returns the first leased number
+    private int lease(int count) {
+        synchronized (LEASE_LOCK) {
+            try (FileChannel channel = FileChannel.open(record, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                // Blocks until other processes are done; released when the channel closes
+                channel.lock();
+                int first = channel.size() == 0 ? seed.getAsInt() : read(channel);
+                write(channel, first + count);
+                return first;
+            } catch (IOException e) {
+                // Without a lease no ID can be assigned safely
+                throw new UncheckedIOException("Cannot lease IDs from " + record, e);
+            }
+        }
+    }
+
+    /**
+     * Returns the unused tail of the local block to the record if nothing has been leased after it.
+     */
+    public void close() {
+        Block current = block.getAndSet(new Block(0, 0));
+        int unused = current.next.get();
+        if (unused >= current.limit) return;
+        synchronized (LEASE_LOCK) {
+            try (FileChannel channel = FileChannel.open(record, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                channel.lock();
+                if (read(channel) == current.limit) {
+                    write(channel, unused);
+                }
+            } catch (IOException e) {
+                System.err.println("Error releasing IDs to " + record + ": " + e.getMessage());
+            }
+        }
+    }
+
+    private static int read(FileChannel channel) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate((int) channel.size());
+        channel.read(buffer, 0);
+        return Integer.parseInt(new String(buffer.array(), 0, buffer.position(), StandardCharsets.US_ASCII).trim());
+    }
+
+    private static void write(FileChannel channel, int value) throws IOException {
+        channel.truncate(0);
+        channel.write(ByteBuffer.wrap((value + System.lineSeparator()).getBytes(StandardCharsets.US_ASCII)), 0);
+        channel.force(false);
+    }
+}
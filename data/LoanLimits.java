@@ -0,0 +1,73 @@
+package data;
+
+import models.Member;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * How many items each member may have on loan at once.
+ *
+ * Read from a properties file: "default" sets the limit for every member, and an entry keyed by
+ * a member ID (e.g. "M007=10") overrides it for that member. Without a default, members are unlimited.
+ */
+public class LoanLimits {
+
+    public static final int UNLIMITED = Integer.MAX_VALUE;
+
+    private final int defaultLimit;
+    private final Map<String, Integer> memberLimits;
+
+    public LoanLimits(int defaultLimit, Map<String, Integer> memberLimits) {
+        this.defaultLimit = defaultLimit;
+        this.memberLimits = new HashMap<>();
+        memberLimits.forEach((memberId, limit) -> this.memberLimits.put(memberId.toUpperCase(Locale.ROOT), limit));
+    }
+
+    public static LoanLimits unlimited() {
+        return new LoanLimits(UNLIMITED, new HashMap<>());
+    }
+
+    /**
+     * Loads the limits from the file, or returns unlimited ones if it does not exist.
+     * Entries that are not non-negative numbers are reported and skipped.
+     */
+    public static LoanLimits load(Path file) {
+        if (!Files.exists(file)) return unlimited();
+        Properties properties = new Properties();
+        try (Reader reader = Files.newBufferedReader(file)) {
+            properties.load(reader);
+        } catch (IOException e) {
+            System.err.println("Error reading loan limits from " + file + ": " + e.getMessage());
+            return unlimited();
+        }
+
+        int defaultLimit = UNLIMITED;
+        Map<String, Integer> memberLimits = new HashMap<>();
+        for (String name : properties.stringPropertyNames()) {
+            int limit;
+            try {
+                limit = Integer.parseInt(properties.getProperty(name).trim());
+                if (limit < 0) throw new NumberFormatException();
+            } catch (NumberFormatException e) {
+                System.err.println("Skipping invalid loan limit '" + name + "=" + properties.getProperty(name) + "' in " + file);
+                continue;
+            }
+            if (name.equalsIgnoreCase("default")) {
+                defaultLimit = limit;
+            } else {
+                memberLimits.put(name, limit);
+            }
+        }
+        return new LoanLimits(defaultLimit, memberLimits);
+    }
+
+    public int limitFor(Member member) {
+        return memberLimits.getOrDefault(member.getMemberId().toUpperCase(Locale.ROOT), defaultLimit);
+    }
+}
@@ -0,0 +1,293 @@
+package data;
+
+import models.*;
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * An append-only journal of library mutations.
+ * Each transaction appends a single short line instead of rewriting the CSV snapshots;
+ * the snapshots are brought up to date by compaction, after which the journal is truncated.
+ */
+public class MutationLog {
+
+    private static final String DELIMITER = ";";
+
+    public enum Type {
+        ITEM_ADDED,
+        STATUS_CHANGED,
+        LOAN_OPENED,
+        LOAN_CLOSED,
+        LOAN_ACCRUED,
+        MEMBER_REGISTERED,
+        HOLD_PLACED,
+        HOLD_READY,
+        HOLD_REMOVED
+    }
+
+    /**
+     * Receives journal entries in the order they were written during replay.
+     * Implementations must be idempotent, since a crash between compaction and
+     * truncation replays entries that are already part of the snapshot.
+     */
+    public interface Handler {
+        void itemAdded(LibraryItem item);
+        void statusChanged(String itemId, ItemStatus status);
+        void loanOpened(String itemId, String memberId, LocalDate borrowDate, LocalDate dueDate);
+        void loanClosed(String itemId);
+        void loanAccrued(String itemId, LocalDate accruedThrough);
+        void memberRegistered(Member member);
+        void holdPlaced(String itemId, String memberId, LocalDate placedOn);
+        void holdReady(String itemId, String memberId, LocalDate expiresOn);
+        void holdRemoved(String itemId, String memberId);
+    }
+
+    private final AppendOnlyFile file;
+    private int entryCount;
+
+    public MutationLog(String filePath) {
+        this(new AppendOnlyFile(filePath, "journal", PersistenceConfig.Durability.NONE, null));
+    }
+
+    MutationLog(AppendOnlyFile file) {
+        this.file = file;
+    }
+
+    public synchronized int getEntryCount() {
+        return entryCount;
+    }
+
+    // --- Appending ---
+
+    public void itemAdded(LibraryItem item) {
+        append(new Batch().itemAdded(item));
+    }
+
+    public void statusChanged(LibraryItem item) {
+        append(new Batch().statusChanged(item));
+    }
+
+    public void loanOpened(Loan loan) {
+        append(new Batch().loanOpened(loan));
+    }
+
+    public void loanClosed(Loan loan) {
+        append(new Batch().loanClosed(loan));
+    }
+
+    public void memberRegistered(Member member) {
+        append(new Batch().memberRegistered(member));
+    }
+
+    /**
+     * Writes every entry of the batch with a single write, or queues it for the group-commit writer.
+     * Returns false if a synchronous write failed.
+     */
+    public synchronized boolean append(Batch batch) {
+        if (batch.size == 0) return true;
+        if (!file.append(batch.entries.toString())) return false;
+        entryCount += batch.size;
+        return true;
+    }
+
+    /**
+     * Waits until every queued entry has been written.
+     */
+    public void flush() {
+        file.flush();
+    }
+
+    /**
+     * A group of entries that reach the journal together, e.g. all mutations of one transaction.
+     */
+    public static class Batch {
+        private final StringBuilder entries = new StringBuilder();
+        private final Set<SnapshotFile> touched = EnumSet.noneOf(SnapshotFile.class);
+        private int size;
+
+        public Batch itemAdded(LibraryItem item) {
+            if (item instanceof Book) {
+                return add(Type.ITEM_ADDED, SnapshotFile.BOOKS, "BOOK" + DELIMITER + ((Book) item).toCsvString());
+            } else if (item instanceof Magazine) {
+                return add(Type.ITEM_ADDED, SnapshotFile.MAGAZINES, "MAGAZINE" + DELIMITER + ((Magazine) item).toCsvString());
+            } else if (item instanceof Article) {
+                return add(Type.ITEM_ADDED, SnapshotFile.ARTICLES, "ARTICLE" + DELIMITER + ((Article) item).toCsvString());
+            }
+            return this;
+        }
+
+        public Batch statusChanged(LibraryItem item) {
+            return add(Type.STATUS_CHANGED, SnapshotFile.of(item), item.getItemId() + DELIMITER + item.getStatus());
+        }
+
+        public Batch loanOpened(Loan loan) {
+            return add(Type.LOAN_OPENED, SnapshotFile.LOANS, loan.toCsvString());
+        }
+
+        public Batch loanClosed(Loan loan) {
+            return add(Type.LOAN_CLOSED, SnapshotFile.LOANS, loan.getItem().getItemId());
+        }
+
+        public Batch loanAccrued(Loan loan) {
+            return add(Type.LOAN_ACCRUED, SnapshotFile.LOANS, loan.getItem().getItemId() + DELIMITER + loan.getAccruedThrough());
+        }
+
+        public Batch memberRegistered(Member member) {
+            return add(Type.MEMBER_REGISTERED, SnapshotFile.MEMBERS, member.toCsvString());
+        }
+
+        public Batch holdPlaced(Hold hold) {
+            return add(Type.HOLD_PLACED, SnapshotFile.HOLDS, hold.getItem().getItemId() + DELIMITER + hold.getMember().getMemberId() + DELIMITER + hold.getPlacedOn());
+        }
+
+        public Batch holdReady(Hold hold) {
+            return add(Type.HOLD_READY, SnapshotFile.HOLDS, hold.getItem().getItemId() + DELIMITER + hold.getMember().getMemberId() + DELIMITER + hold.getExpiresOn());
+        }
+
+        public Batch holdRemoved(Hold hold) {
+            return add(Type.HOLD_REMOVED, SnapshotFile.HOLDS, hold.getItem().getItemId() + DELIMITER + hold.getMember().getMemberId());
+        }
+
+        public int size() {
+            return size;
+        }
+
+        // The snapshot files whose contents the batch changes
+        public Set<SnapshotFile> touched() {
+            return Collections.unmodifiableSet(touched);
+        }
+
+        // Characters in the batch; the journal is almost entirely ASCII, so this is close to its size in bytes
+        public int length() {
+            return entries.length();
+        }
+
+        private Batch add(Type type, SnapshotFile file, String payload) {
+            entries.append(type.name()).append(DELIMITER).append(payload).append(System.lineSeparator());
+            touched.add(file);
+            size++;
+            return this;
+        }
+    }
+
+    // --- Replay and Truncation ---
+
+    /**
+     * Feeds every entry in the journal to the handler and returns the number of entries replayed.
+     * Meant for startup: the replayed entries become the count that decides when to compact.
+     */
+    public synchronized int replay(Handler handler) {
+        entryCount = readEntries(handler);
+        return entryCount;
+    }
+
+    /**
+     * Feeds every entry to the handler without touching the entry count, e.g. to build a read-only view.
+     * Queued entries are written first, and no append can start meanwhile, so no partial line is read.
+     */
+    public synchronized int read(Handler handler) {
+        file.flush();
+        return readEntries(handler);
+    }
+
+    private int readEntries(Handler handler) {
+        File journal = file.getFile();
+        if (!journal.exists()) return 0;
+
+        int replayed = 0;
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(journal), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.trim().isEmpty()) continue;
+                try {
+                    apply(line, handler);
+                    replayed++;
+                } catch (RuntimeException e) {
+                    System.err.println("Skipping malformed journal entry '" + line + "': " + e.getMessage());
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("Error reading journal " + journal + ": " + e.getMessage());
+        }
+        return replayed;
+    }
+
+    private void apply(String line, Handler handler) {
+        String[] entry = line.split(DELIMITER, 2);
+        String payload = entry[1];
+        switch (Type.valueOf(entry[0])) {
+            case ITEM_ADDED: {
+                String[] kindAndCsv = payload.split(DELIMITER, 2);
+                switch (kindAndCsv[0]) {
+                    case "BOOK":
+                        handler.itemAdded(Book.fromCsvString(kindAndCsv[1]));
+                        break;
+                    case "MAGAZINE":
+                        handler.itemAdded(Magazine.fromCsvString(kindAndCsv[1]));
+                        break;
+                    case "ARTICLE":
+                        handler.itemAdded(Article.fromCsvString(kindAndCsv[1]));
+                        break;
+                    default:
+                        throw new IllegalArgumentException("Unknown item type " + kindAndCsv[0]);
+                }
+                break;
+            }
+            case STATUS_CHANGED: {
+                String[] parts = payload.split(DELIMITER);
+                handler.statusChanged(parts[0], ItemStatus.valueOf(parts[1]));
+                break;
+            }
+            case LOAN_OPENED: {
+                String[] parts = CsvFormat.split(payload, Loan.DELIMITER);
+                handler.loanOpened(parts[0], parts[1], LocalDate.parse(parts[2]), LocalDate.parse(parts[3]));
+                break;
+            }
+            case LOAN_CLOSED:
+                handler.loanClosed(payload);
+                break;
+            case LOAN_ACCRUED: {
+                String[] parts = payload.split(DELIMITER);
+                handler.loanAccrued(parts[0], LocalDate.parse(parts[1]));
+                break;
+            }
+            case MEMBER_REGISTERED:
+                handler.memberRegistered(Member.fromCsvString(payload));
+                break;
+            case HOLD_PLACED: {
+                String[] parts = payload.split(DELIMITER);
+                handler.holdPlaced(parts[0], parts[1], LocalDate.parse(parts[2]));
+                break;
+            }
+            case HOLD_READY: {
+                String[] parts = payload.split(DELIMITER);
+                handler.holdReady(parts[0], parts[1], LocalDate.parse(parts[2]));
+                break;
+            }
+            case HOLD_REMOVED: {
+                String[] parts = payload.split(DELIMITER);
+                handler.holdRemoved(parts[0], parts[1]);
+                break;
+            }
+        }
+    }
+
+    /**
+     * Discards all entries. Called once their effects have been written to the snapshot.
+     * Queued entries are written before the truncation, never after it.
+     */
+    public void truncate() {
+        file.truncate();
+        synchronized (this) {
+            entryCount = 0;
+        }
+    }
+
+    public void close() {
+        file.close();
+    }
+}
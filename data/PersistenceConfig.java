@@ -0,0 +1,80 @@
+package data;
+
+/**
+ * How journal and ledger appends reach the disk.
+ *
+ * Synchronous mode writes each append on the caller's thread before the transaction returns.
+ * Asynchronous mode acknowledges an append once it is queued; a background writer coalesces
+ * everything pending into one write per file every flush interval, or sooner once a batch fills.
+ * The durability policy decides whether each write is forced to the device (fsync) or left to
+ * the operating system's page cache.
+ */
+public class PersistenceConfig {
+
+    public enum Durability {
+        FSYNC_PER_BATCH,
+        NONE
+    }
+
+    private static final long DEFAULT_FLUSH_INTERVAL_MILLIS = 5;
+    private static final int DEFAULT_MAX_BATCH_ENTRIES = 1024;
+
+    private final boolean asynchronous;
+    private final Durability durability;
+    private final long flushIntervalMillis;
+    private final int maxBatchEntries;
+
+    private PersistenceConfig(boolean asynchronous, Durability durability, long flushIntervalMillis, int maxBatchEntries) {
+        this.asynchronous = asynchronous;
+        this.durability = durability;
+        this.flushIntervalMillis = flushIntervalMillis;
+        this.maxBatchEntries = maxBatchEntries;
+    }
+
+    public static PersistenceConfig synchronous(Durability durability) {
+        return new PersistenceConfig(false, durability, DEFAULT_FLUSH_INTERVAL_MILLIS, DEFAULT_MAX_BATCH_ENTRIES);
+    }
+
+    public static PersistenceConfig asynchronous(Durability durability, long flushIntervalMillis, int maxBatchEntries) {
+        if (flushIntervalMillis < 0 || maxBatchEntries < 1) {
+            throw new IllegalArgumentException("Flush interval must be non-negative and batch size positive");
+        }
+        return new PersistenceConfig(true, durability, flushIntervalMillis, maxBatchEntries);
+    }
+
+    /**
+     * Reads the configuration from system properties, falling back to synchronous writes without fsync:
+     * libratech.persistence (sync or async), libratech.durability (fsync or none),
+     * libratech.flushIntervalMillis and libratech.maxBatchEntries.
+     */
+    public static PersistenceConfig fromSystemProperties() {
+        String mode = System.getProperty("libratech.persistence", "sync");
+        String durabilityName = System.getProperty("libratech.durability", "none");
+        Durability durability = Durability.NONE;
+        if (durabilityName.equalsIgnoreCase("fsync")) {
+            durability = Durability.FSYNC_PER_BATCH;
+        } else if (!durabilityName.equalsIgnoreCase("none")) {
+            System.err.println("Unknown durability '" + durabilityName + "'; writes will not be fsynced.");
+        }
+
+        if (mode.equalsIgnoreCase("async")) {
+            try {
+                long interval = Long.parseLong(System.getProperty("libratech.flushIntervalMillis", String.valueOf(DEFAULT_FLUSH_INTERVAL_MILLIS)));
+                int maxBatch = Integer.parseInt(System.getProperty("libratech.maxBatchEntries", String.valueOf(DEFAULT_MAX_BATCH_ENTRIES)));
+                return asynchronous(durability, interval, maxBatch);
+            } catch (IllegalArgumentException e) {
+                System.err.println("Invalid group-commit settings (" + e.getMessage() + "); using the defaults.");
+                return asynchronous(durability, DEFAULT_FLUSH_INTERVAL_MILLIS, DEFAULT_MAX_BATCH_ENTRIES);
+            }
+        }
+        if (!mode.equalsIgnoreCase("sync")) {
+            System.err.println("Unknown persistence mode '" + mode + "'; writing synchronously.");
+        }
+        return synchronous(durability);
+    }
+
+    public boolean isAsynchronous() { return asynchronous; }
+    public Durability getDurability() { return durability; }
+    public long getFlushIntervalMillis() { return flushIntervalMillis; }
+    public int getMaxBatchEntries() { return maxBatchEntries; }
+}
@@ -0,0 +1,23 @@
+package data;
+
+import models.*;
+import java.util.List;
+
+/**
+ * The complete persisted state of the library as loaded from disk.
+ */
+public class Snapshot {
+    private final List<LibraryItem> items;
+    private final List<User> users;
+    private final List<Loan> loans;
+
+    public Snapshot(List<LibraryItem> items, List<User> users, List<Loan> loans) {
+        this.items = items;
+        this.users = users;
+        this.loans = loans;
+    }
+
+    public List<LibraryItem> getItems() { return items; }
+    public List<User> getUsers() { return users; }
+    public List<Loan> getLoans() { return loans; }
+}
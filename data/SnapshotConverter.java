@@ -0,0 +1,37 @@
+package data;
+
+import java.io.IOException;
+
+/**
+ * Command-line converter between the CSV files and the binary snapshot.
+ * Run it while the library is shut down, so the journal has been folded into the snapshots.
+ *
+ * Usage: java data.SnapshotConverter to-binary|to-csv
+ */
+public class SnapshotConverter {
+
+    public static void main(String[] args) {
+        if (args.length != 1) {
+            System.out.println("Usage: java data.SnapshotConverter to-binary|to-csv");
+            return;
+        }
+
+        DataManager dataManager = new DataManager();
+        switch (args[0]) {
+            case "to-binary":
+                dataManager.convertCsvToBinary();
+                System.out.println("Binary snapshot rebuilt from CSV files.");
+                break;
+            case "to-csv":
+                try {
+                    dataManager.convertBinaryToCsv();
+                    System.out.println("CSV files regenerated from the binary snapshot.");
+                } catch (IOException e) {
+                    System.err.println("Error converting snapshot: " + e.getMessage());
+                }
+                break;
+            default:
+                System.out.println("Unknown command: " + args[0]);
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package data;
+
+import models.*;
+
+/**
+ * The CSV snapshot files, one per collection. Journal batches record which of them they touch,
+ * so compaction rewrites only the files whose contents changed.
+ */
+public enum SnapshotFile {
+    BOOKS,
+    MAGAZINES,
+    ARTICLES,
+    MEMBERS,
+    LIBRARIANS,
+    LOANS,
+    HOLDS;
+
+    public static SnapshotFile of(LibraryItem item) {
+        if (item instanceof Book) return BOOKS;
+        if (item instanceof Magazine) return MAGAZINES;
+        if (item instanceof Article) return ARTICLES;
+        throw new IllegalArgumentException("Unsupported item type " + item.getClass().getSimpleName());
+    }
+
+    public static SnapshotFile of(User user) {
+        return user instanceof Librarian ? LIBRARIANS : MEMBERS;
+    }
+
+    // The binary snapshot holds items, users and loans, but not holds
+    boolean inBinarySnapshot() {
+        return this != HOLDS;
+    }
+}
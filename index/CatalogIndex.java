@@ -0,0 +1,170 @@
+package index;
+
+import interfaces.StatusChangeListener;
+import models.Article;
+import models.Book;
+import models.ItemStatus;
+import models.LibraryItem;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Secondary indexes over the inventory: books by ISBN, books and articles by author, and every
+ * item by its concrete type and current status, with a counter per type and status.
+ * Counts are O(1) reads; lookups cost O(k) for the k items returned, instead of a scan of the inventory.
+ *
+ * Items report their status changes to the index. Since racing transitions may report out of order,
+ * an item is always refiled under the status it has when the report is processed, atomically per item,
+ * so the index converges to the items' actual statuses.
+ */
+public class CatalogIndex implements StatusChangeListener {
+
+    // Numeric order of IDs: shorter numbers first, since "ITEM-999" sorts after "ITEM-1000" as text
+    private static final Comparator<LibraryItem> BY_ITEM_ID =
+        Comparator.comparingInt((LibraryItem item) -> item.getItemId().length()).thenComparing(LibraryItem::getItemId);
+
+    /**
+     * The items of one concrete type, by status.
+     */
+    private static class Shelf {
+        final Map<ItemStatus, Set<LibraryItem>> items = new EnumMap<>(ItemStatus.class);
+        final Map<ItemStatus, AtomicInteger> counts = new EnumMap<>(ItemStatus.class);
+
+        Shelf() {
+            for (ItemStatus status : ItemStatus.values()) {
+                items.put(status, ConcurrentHashMap.newKeySet());
+                counts.put(status, new AtomicInteger());
+            }
+        }
+    }
+
+    private final Map<String, Set<Book>> booksByIsbn = new ConcurrentHashMap<>();
+    private final Map<String, Set<LibraryItem>> itemsByAuthor = new ConcurrentHashMap<>();
+    private final Map<Class<? extends LibraryItem>, Shelf> shelves = new ConcurrentHashMap<>();
+    // The status each item is filed under; updated atomically per item together with its shelf
+    private final ConcurrentHashMap<LibraryItem, ItemStatus> filedStatus = new ConcurrentHashMap<>();
+
+    public void add(LibraryItem item) {
+        if (filedStatus.containsKey(item)) return;
+        if (item instanceof Book && ((Book) item).getIsbn() != null) {
+            Book book = (Book) item;
+            booksByIsbn.computeIfAbsent(isbnKey(book.getIsbn()), k -> ConcurrentHashMap.newKeySet()).add(book);
+        }
+        String author = authorOf(item);
+        if (author != null) {
+            itemsByAuthor.computeIfAbsent(authorKey(author), k -> ConcurrentHashMap.newKeySet()).add(item);
+        }
+        item.setStatusListener(this);
+        filedStatus.computeIfAbsent(item, k -> {
+            ItemStatus status = item.getStatus();
+            Shelf shelf = shelf(item.getClass());
+            shelf.items.get(status).add(item);
+            shelf.counts.get(status).incrementAndGet();
+            return status;
+        });
+    }
+
+    public void addAll(Collection<? extends LibraryItem> items) {
+        items.forEach(this::add);
+    }
+
+    @Override
+    public void statusChanged(LibraryItem item, ItemStatus previous, ItemStatus current) {
+        filedStatus.computeIfPresent(item, (k, filed) -> {
+            ItemStatus status = item.getStatus();
+            if (status != filed) {
+                Shelf shelf = shelf(item.getClass());
+                shelf.items.get(filed).remove(item);
+                shelf.counts.get(filed).decrementAndGet();
+                shelf.items.get(status).add(item);
+                shelf.counts.get(status).incrementAndGet();
+            }
+            return status;
+        });
+    }
+
+    // --- Queries ---
+
+    /**
+     * The number of items of the given type in the given status; null for either means any.
+     * Reads at most one counter per type and status, however large the inventory.
+     */
+    public int count(Class<? extends LibraryItem> type, ItemStatus status) {
+        int total = 0;
+        for (Map.Entry<Class<? extends LibraryItem>, Shelf> entry : shelves.entrySet()) {
+            if (type != null && entry.getKey() != type) continue;
+            for (Map.Entry<ItemStatus, AtomicInteger> count : entry.getValue().counts.entrySet()) {
+                if (status == null || count.getKey() == status) total += count.getValue().get();
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Every item of the given type in the given status, in ID order; null for either means any.
+     */
+    public List<LibraryItem> items(Class<? extends LibraryItem> type, ItemStatus status) {
+        List<LibraryItem> items = new ArrayList<>();
+        for (Map.Entry<Class<? extends LibraryItem>, Shelf> entry : shelves.entrySet()) {
+            if (type != null && entry.getKey() != type) continue;
+            for (Map.Entry<ItemStatus, Set<LibraryItem>> shelved : entry.getValue().items.entrySet()) {
+                if (status == null || shelved.getKey() == status) items.addAll(shelved.getValue());
+            }
+        }
+        items.sort(BY_ITEM_ID);
+        return items;
+    }
+
+    /**
+     * The copies of the book with the given ISBN, in ID order. Hyphens and spaces are ignored.
+     */
+    public List<Book> findByIsbn(String isbn) {
+        Set<Book> books = booksByIsbn.get(isbnKey(isbn));
+        if (books == null) return Collections.emptyList();
+        List<Book> copies = new ArrayList<>(books);
+        copies.sort(BY_ITEM_ID);
+        return copies;
+    }
+
+    /**
+     * The books and articles by the given author (case-insensitive) in the given status, in ID order;
+     * a null status means any.
+     */
+    public List<LibraryItem> findByAuthor(String author, ItemStatus status) {
+        Set<LibraryItem> byAuthor = itemsByAuthor.get(authorKey(author));
+        if (byAuthor == null) return Collections.emptyList();
+        List<LibraryItem> items = new ArrayList<>();
+        for (LibraryItem item : byAuthor) {
+            if (status == null || item.getStatus() == status) items.add(item);
+        }
+        items.sort(BY_ITEM_ID);
+        return items;
+    }
+
+    private Shelf shelf(Class<? extends LibraryItem> type) {
+        return shelves.computeIfAbsent(type, t -> new Shelf());
+    }
+
+    private static String authorOf(LibraryItem item) {
+        if (item instanceof Book) return ((Book) item).getAuthor();
+        if (item instanceof Article) return ((Article) item).getAuthor();
+        return null;
+    }
+
+    private static String authorKey(String author) {
+        return author.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static String isbnKey(String isbn) {
+        return isbn.replace("-", "").replace(" ", "").toUpperCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,455 @@
+package index;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * A typeahead index completing prefixes to phrases such as titles, authors and member names.
+ * A prefix matches a phrase from the start of any of its words, so "tolk" completes "J.R.R. Tolkien".
+ * Completions are ranked by weight: the number of times the phrase was added.
+ *
+ * Each distinct phrase is stored once. The index is a sorted long[] of (phrase, word offset)
+ * references, so a prefix maps to one contiguous range found by binary search. A segment tree
+ * over that array yields the heaviest phrases of a range in O(K log n), without scanning it;
+ * fuzzy matching feeds the ranges of all one-edit variants of the prefix into one such search.
+ * Additions go to a small unsorted buffer that queries scan, and are merged into the sorted array
+ * once it grows past a threshold. Ranking inside the sorted array uses the weights as of the last
+ * merge; weight changes also count towards the threshold, so this lag stays bounded.
+ */
+public class CompletionIndex {
+
+    /**
+     * A completed phrase, as first added, and its weight.
+     */
+    public static class Completion {
+        private final String text;
+        private final int weight;
+
+        Completion(String text, int weight) {
+            this.text = text;
+            this.weight = weight;
+        }
+
+        public String getText() { return text; }
+        public int getWeight() { return weight; }
+
+        @Override
+        public String toString() {
+            return text + " (" + weight + ")";
+        }
+    }
+
+    // Pending changes tolerated before they are merged into the sorted array
+    private static final int MAX_PENDING = 4096;
+    // Word starts indexed per phrase, which bounds the references a long title creates
+    private static final int MAX_WORD_STARTS = 16;
+    // Shorter prefixes are too ambiguous for fuzzy matching to help
+    private static final int MIN_FUZZY_LENGTH = 3;
+    private static final String FUZZY_ALPHABET = "abcdefghijklmnopqrstuvwxyz0123456789 ";
+    // Characters packed into each key head, 16 bits each
+    private static final int HEAD_CHARS = 4;
+
+    // --- Phrases ---
+    private final Map<String, Integer> phraseIds = new HashMap<>();
+    private final List<String> texts = new ArrayList<>();
+    private final List<String> normalized = new ArrayList<>();
+    private int[] weights = new int[16];
+
+    // --- Sorted references, as of the last merge ---
+    private long[] keys = new long[0];
+    // First characters of each key's text, packed, so binary searches rarely touch the strings
+    private long[] keyHeads = new long[0];
+    // Weight of each key's phrase, kept beside the keys so ranking reads one array
+    private int[] keyWeights = new int[0];
+    // Segment tree of key positions; each node holds the heaviest position below it
+    private int[] tree = new int[0];
+
+    // --- Changes since the last merge ---
+    private long[] pendingKeys = new long[64];
+    private int pendingCount;
+    private int pendingWeightChanges;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    public void add(String text) {
+        lock.writeLock().lock();
+        try {
+            addPhrase(text);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Adds many phrases and merges them in one pass, which is much cheaper than adding them one by one.
+     */
+    public void addAll(Collection<String> phrases) {
+        lock.writeLock().lock();
+        try {
+            for (String text : phrases) {
+                addPhrase(text);
+            }
+            merge();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Merges pending additions into the sorted array. Queries do this when needed; calling it
+     * after loading saves the first query the work.
+     */
+    public void compact() {
+        lock.writeLock().lock();
+        try {
+            merge();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * The number of distinct phrases.
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return texts.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns up to limit phrases completing the prefix, heaviest first. With fuzzy set, remaining
+     * places are filled with phrases completing a prefix one edit (insertion, deletion, substitution
+     * or transposition) away from it.
+     */
+    public List<Completion> complete(String prefix, int limit, boolean fuzzy) {
+        String query = normalize(prefix);
+        List<Completion> completions = new ArrayList<>();
+        if (query.isEmpty() || limit <= 0) return completions;
+
+        if (mergeNeeded()) compact();
+        lock.readLock().lock();
+        try {
+            Set<Integer> exact = new LinkedHashSet<>();
+            collectTop(Collections.singletonList(range(query, 0, keys.length)), limit, exact);
+            for (int i = 0; i < pendingCount; i++) {
+                if (compareToPrefix(pendingKeys[i], query) == 0) exact.add(phraseOf(pendingKeys[i]));
+            }
+            List<Integer> ranked = rank(exact, limit);
+
+            if (fuzzy && ranked.size() < limit && query.length() >= MIN_FUZZY_LENGTH) {
+                Set<Integer> near = new HashSet<>(exact);
+                collectTop(oneEditRanges(query), limit, near);
+                for (int i = 0; i < pendingCount; i++) {
+                    if (startsWithinOneEdit(pendingKeys[i], query)) near.add(phraseOf(pendingKeys[i]));
+                }
+                near.removeAll(exact);
+                ranked.addAll(rank(near, limit - ranked.size()));
+            }
+
+            for (int id : ranked) {
+                completions.add(new Completion(texts.get(id), weights[id]));
+            }
+            return completions;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Lower-cases the text and collapses everything between words to a single space.
+     */
+    static String normalize(String text) {
+        return String.join(" ", InvertedIndex.tokenize(text));
+    }
+
+    // --- Updates (write lock held) ---
+
+    private void addPhrase(String text) {
+        String phrase = normalize(text);
+        if (phrase.isEmpty()) return;
+
+        Integer existing = phraseIds.get(phrase);
+        if (existing != null) {
+            weights[existing]++;
+            pendingWeightChanges++;
+            return;
+        }
+
+        int id = texts.size();
+        phraseIds.put(phrase, id);
+        texts.add(text.trim());
+        normalized.add(phrase);
+        if (id == weights.length) weights = Arrays.copyOf(weights, id * 2);
+        weights[id] = 1;
+
+        int starts = 0;
+        for (int offset = 0; offset < phrase.length() && starts < MAX_WORD_STARTS; offset++) {
+            if (offset == 0 || phrase.charAt(offset - 1) == ' ') {
+                if (pendingCount == pendingKeys.length) pendingKeys = Arrays.copyOf(pendingKeys, pendingCount * 2);
+                pendingKeys[pendingCount++] = key(id, offset);
+                starts++;
+            }
+        }
+    }
+
+    private boolean mergeNeeded() {
+        lock.readLock().lock();
+        try {
+            return pendingCount > MAX_PENDING || pendingWeightChanges > MAX_PENDING;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void merge() {
+        if (pendingCount == 0 && pendingWeightChanges == 0) return;
+
+        long[] added = Arrays.copyOf(pendingKeys, pendingCount);
+        sortKeys(added);
+        long[] merged = new long[keys.length + added.length];
+        int i = 0, j = 0, k = 0;
+        while (i < keys.length && j < added.length) {
+            merged[k++] = compareKeys(keys[i], added[j]) <= 0 ? keys[i++] : added[j++];
+        }
+        while (i < keys.length) merged[k++] = keys[i++];
+        while (j < added.length) merged[k++] = added[j++];
+
+        keys = merged;
+        keyHeads = new long[merged.length];
+        keyWeights = new int[merged.length];
+        for (int p = 0; p < merged.length; p++) {
+            keyHeads[p] = pack(normalized.get(phraseOf(merged[p])), offsetOf(merged[p]));
+            keyWeights[p] = weights[phraseOf(merged[p])];
+        }
+        buildTree();
+        pendingKeys = new long[64];
+        pendingCount = 0;
+        pendingWeightChanges = 0;
+    }
+
+    private void buildTree() {
+        int n = keys.length;
+        tree = new int[2 * n];
+        for (int i = 0; i < n; i++) {
+            tree[n + i] = i;
+        }
+        for (int node = n - 1; node > 0; node--) {
+            tree[node] = heavier(tree[2 * node], tree[2 * node + 1]);
+        }
+    }
+
+    // Bottom-up merge sort, since the keys are primitives ordered by the text they point into
+    private void sortKeys(long[] values) {
+        long[] buffer = new long[values.length];
+        for (int width = 1; width < values.length; width *= 2) {
+            for (int lo = 0; lo < values.length - width; lo += 2 * width) {
+                int mid = lo + width, hi = Math.min(lo + 2 * width, values.length);
+                int i = lo, j = mid, k = lo;
+                while (i < mid && j < hi) {
+                    buffer[k++] = compareKeys(values[i], values[j]) <= 0 ? values[i++] : values[j++];
+                }
+                while (i < mid) buffer[k++] = values[i++];
+                while (j < hi) buffer[k++] = values[j++];
+                System.arraycopy(buffer, lo, values, lo, hi - lo);
+            }
+        }
+    }
+
+    // --- Queries (read lock held) ---
+
+    // Positions [lo, hi) of the sorted keys starting with the prefix, searching within the given positions
+    private int[] range(String prefix, int lo, int hi) {
+        int first = bound(prefix, lo, hi, false);
+        return new int[] { first, bound(prefix, first, hi, true) };
+    }
+
+    // Adds up to limit phrases not yet in out from the given position ranges, heaviest first
+    private void collectTop(List<int[]> ranges, int limit, Set<Integer> out) {
+        // Each entry is {heaviest position, lo, hi}; popping one splits its range around that position
+        PriorityQueue<int[]> queue = new PriorityQueue<>((a, b) -> a[0] == b[0] ? 0 : heavier(a[0], b[0]) == a[0] ? -1 : 1);
+        for (int[] range : ranges) {
+            if (range[0] < range[1]) queue.add(new int[] { heaviestIn(range[0], range[1]), range[0], range[1] });
+        }
+        int added = 0;
+        while (!queue.isEmpty() && added < limit) {
+            int[] entry = queue.poll();
+            int position = entry[0];
+            if (out.add(phraseOf(keys[position]))) added++;
+            if (entry[1] < position) queue.add(new int[] { heaviestIn(entry[1], position), entry[1], position });
+            if (position + 1 < entry[2]) queue.add(new int[] { heaviestIn(position + 1, entry[2]), position + 1, entry[2] });
+        }
+    }
+
+    private int heaviestIn(int lo, int hi) {
+        int n = keys.length;
+        int best = -1;
+        for (int l = lo + n, r = hi + n; l < r; l >>= 1, r >>= 1) {
+            if ((l & 1) == 1) best = heavier(best, tree[l++]);
+            if ((r & 1) == 1) best = heavier(best, tree[--r]);
+        }
+        return best;
+    }
+
+    // Prefers the higher weight at the last merge, then the earlier position
+    private int heavier(int a, int b) {
+        if (a < 0) return b;
+        if (b < 0) return a;
+        int byWeight = Integer.compare(keyWeights[a], keyWeights[b]);
+        if (byWeight != 0) return byWeight > 0 ? a : b;
+        return a < b ? a : b;
+    }
+
+    private List<Integer> rank(Set<Integer> ids, int limit) {
+        List<Integer> ranked = new ArrayList<>(ids);
+        ranked.sort((a, b) -> {
+            int byWeight = Integer.compare(weights[b], weights[a]);
+            return byWeight != 0 ? byWeight : normalized.get(a).compareTo(normalized.get(b));
+        });
+        return ranked.size() > limit ? new ArrayList<>(ranked.subList(0, limit)) : ranked;
+    }
+
+    private int bound(String prefix, int lo, int hi, boolean upper) {
+        long head = pack(prefix, 0);
+        // Compares only the prefix's own characters of the packed heads
+        long mask = prefix.length() >= HEAD_CHARS ? -1L : ~(-1L >>> (16 * prefix.length()));
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            int comparison = Long.compareUnsigned(keyHeads[mid] & mask, head);
+            if (comparison == 0 && prefix.length() > HEAD_CHARS) comparison = compareToPrefix(keys[mid], prefix);
+            if (comparison < 0 || (upper && comparison == 0)) lo = mid + 1; else hi = mid;
+        }
+        return lo;
+    }
+
+    // Ranges of the prefixes one edit away from the query. Each variant shares the query's characters
+    // before its edit, so it is searched only within the range of that head, which narrows as the edit moves right.
+    private List<int[]> oneEditRanges(String query) {
+        List<int[]> ranges = new ArrayList<>();
+        int length = query.length();
+        int lo = 0, hi = keys.length;
+        for (int i = 0; i <= length && lo < hi; i++) {
+            String head = query.substring(0, i);
+            List<String> variants = new ArrayList<>();
+            if (i < length) {
+                variants.add(head + query.substring(i + 1));
+                if (i + 1 < length) {
+                    variants.add(head + query.charAt(i + 1) + query.charAt(i) + query.substring(i + 2));
+                }
+            }
+            for (int c = 0; c < FUZZY_ALPHABET.length(); c++) {
+                char ch = FUZZY_ALPHABET.charAt(c);
+                variants.add(head + ch + query.substring(i));
+                if (i < length && ch != query.charAt(i)) variants.add(head + ch + query.substring(i + 1));
+            }
+            for (String variant : variants) {
+                int[] range = range(variant, lo, hi);
+                if (range[0] < range[1]) ranges.add(range);
+            }
+            if (i < length) {
+                String next = query.substring(0, i + 1);
+                int nextLo = bound(next, lo, hi, false);
+                hi = bound(next, nextLo, hi, true);
+                lo = nextLo;
+            }
+        }
+        return ranges;
+    }
+
+    // Whether some prefix of the referenced text is at most one edit away from the query
+    private boolean startsWithinOneEdit(long key, String query) {
+        String text = normalized.get(phraseOf(key));
+        int offset = offsetOf(key);
+        int available = text.length() - offset;
+        for (int length = query.length() - 1; length <= query.length() + 1; length++) {
+            if (length >= 0 && length <= available && withinOneEdit(text, offset, length, query)) return true;
+        }
+        return false;
+    }
+
+    private static boolean withinOneEdit(String text, int offset, int length, String query) {
+        int i = 0, j = 0, edits = 0;
+        while (i < length && j < query.length()) {
+            if (text.charAt(offset + i) == query.charAt(j)) {
+                i++;
+                j++;
+                continue;
+            }
+            if (++edits > 1) return false;
+            if (length > query.length()) {
+                i++;
+            } else if (length < query.length()) {
+                j++;
+            } else if (i + 1 < length && text.charAt(offset + i) == query.charAt(j + 1)
+                    && text.charAt(offset + i + 1) == query.charAt(j)) {
+                i += 2;
+                j += 2;
+            } else {
+                i++;
+                j++;
+            }
+        }
+        return edits + (length - i) + (query.length() - j) <= 1;
+    }
+
+    // --- Keys ---
+
+    private static long key(int phrase, int offset) {
+        return ((long) phrase << 32) | offset;
+    }
+
+    private static int phraseOf(long key) {
+        return (int) (key >>> 32);
+    }
+
+    private static int offsetOf(long key) {
+        return (int) key;
+    }
+
+    // The first HEAD_CHARS characters from the offset, zero-padded; unsigned order matches text order
+    private static long pack(String text, int offset) {
+        long head = 0;
+        for (int i = 0; i < HEAD_CHARS; i++) {
+            int at = offset + i;
+            head = (head << 16) | (at < text.length() ? text.charAt(at) : 0);
+        }
+        return head;
+    }
+
+    // Orders keys by the text from their offset on, then by phrase, so that no two keys compare equal
+    private int compareKeys(long a, long b) {
+        String textA = normalized.get(phraseOf(a)), textB = normalized.get(phraseOf(b));
+        int i = offsetOf(a), j = offsetOf(b);
+        while (i < textA.length() && j < textB.length()) {
+            int diff = textA.charAt(i++) - textB.charAt(j++);
+            if (diff != 0) return diff;
+        }
+        int byLength = Integer.compare(textA.length() - i, textB.length() - j);
+        return byLength != 0 ? byLength : Long.compare(a, b);
+    }
+
+    // Zero when the referenced text starts with the prefix, otherwise its order relative to the prefix
+    private int compareToPrefix(long key, String prefix) {
+        String text = normalized.get(phraseOf(key));
+        int offset = offsetOf(key);
+        for (int i = 0; i < prefix.length(); i++) {
+            if (offset + i >= text.length()) return -1;
+            int diff = text.charAt(offset + i) - prefix.charAt(i);
+            if (diff != 0) return diff;
+        }
+        return 0;
+    }
+}
@@ -0,0 +1,95 @@
+package index;
+
+import models.Loan;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+
+/**
+ * Active loans ordered by due date.
+ * Range queries ("overdue as of today", "due in the next three days") cost O(log n + k)
+ * for k matching loans, instead of a scan over every active loan.
+ * Loans due on the same day are ordered by item ID, which gives every loan a stable position for paging.
+ */
+public class DueDateIndex {
+
+    private static final Comparator<Loan> BY_ITEM_ID = Comparator.comparing(loan -> loan.getItem().getItemId());
+
+    private final ConcurrentSkipListMap<LocalDate, ConcurrentSkipListSet<Loan>> loansByDueDate = new ConcurrentSkipListMap<>();
+    private final AtomicInteger size = new AtomicInteger();
+
+    public void add(Loan loan) {
+        if (loansByDueDate.computeIfAbsent(loan.getDueDate(), d -> new ConcurrentSkipListSet<>(BY_ITEM_ID)).add(loan)) {
+            size.incrementAndGet();
+        }
+    }
+
+    public void remove(Loan loan) {
+        // Emptied buckets are kept: removing them would race with a concurrent add to the same day,
+        // and there is at most one per calendar day
+        if (contains(loan) && loansByDueDate.get(loan.getDueDate()).remove(loan)) {
+            size.decrementAndGet();
+        }
+    }
+
+    // Buckets compare loans by item ID, so the match is checked to be this very loan and not a later one of the same item
+    public boolean contains(Loan loan) {
+        ConcurrentSkipListSet<Loan> loans = loansByDueDate.get(loan.getDueDate());
+        return loans != null && loans.floor(loan) == loan;
+    }
+
+    public int size() {
+        return size.get();
+    }
+
+    /**
+     * Returns every loan whose due date is before the given day, earliest first.
+     */
+    public List<Loan> overdueAsOf(LocalDate day) {
+        return flatten(loansByDueDate.headMap(day, false).values());
+    }
+
+    /**
+     * Returns every loan due between the two days inclusive, earliest first.
+     */
+    public List<Loan> dueBetween(LocalDate from, LocalDate to) {
+        if (to.isBefore(from)) return new ArrayList<>();
+        return flatten(loansByDueDate.subMap(from, true, to, true).values());
+    }
+
+    /**
+     * Returns up to limit loans matching the filter, in due-date order, starting after the loan
+     * due on afterDueDate for afterItemId. A null afterDueDate starts from the earliest loan.
+     * Only the loans up to the last one returned are visited.
+     */
+    public List<Loan> page(LocalDate afterDueDate, String afterItemId, int limit, Predicate<Loan> filter) {
+        List<Loan> page = new ArrayList<>();
+        Map<LocalDate, ConcurrentSkipListSet<Loan>> tail = afterDueDate == null ? loansByDueDate : loansByDueDate.tailMap(afterDueDate, true);
+        for (Map.Entry<LocalDate, ConcurrentSkipListSet<Loan>> bucket : tail.entrySet()) {
+            boolean cursorDay = bucket.getKey().equals(afterDueDate);
+            for (Loan loan : bucket.getValue()) {
+                if (cursorDay && loan.getItem().getItemId().compareTo(afterItemId) <= 0) continue;
+                if (!filter.test(loan)) continue;
+                page.add(loan);
+                if (page.size() == limit) return page;
+            }
+        }
+        return page;
+    }
+
+    private static List<Loan> flatten(Collection<? extends Set<Loan>> buckets) {
+        List<Loan> loans = new ArrayList<>();
+        for (Set<Loan> bucket : buckets) {
+            loans.addAll(bucket);
+        }
+        return loans;
+    }
+}
@@ -0,0 +1,95 @@
+package index;
+
+import models.Hold;
+import models.LibraryItem;
+import models.Member;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * First-come, first-served hold queues, one per item.
+ * Reads never block. Writers for the same item are expected to be serialized by the caller
+ * (the Library holds the item's lock), so a queue never sees two conflicting changes at once.
+ */
+public class HoldQueues {
+
+    private final ConcurrentMap<LibraryItem, Deque<Hold>> queues = new ConcurrentHashMap<>();
+
+    public void add(Hold hold) {
+        queues.computeIfAbsent(hold.getItem(), item -> new ConcurrentLinkedDeque<>()).addLast(hold);
+    }
+
+    public void remove(Hold hold) {
+        // Empty queues are dropped so items that were once popular don't linger
+        queues.computeIfPresent(hold.getItem(), (item, queue) -> {
+            queue.remove(hold);
+            return queue.isEmpty() ? null : queue;
+        });
+    }
+
+    /**
+     * Returns the hold at the front of the item's queue, or null if nobody is waiting.
+     */
+    public Hold peek(LibraryItem item) {
+        Deque<Hold> queue = queues.get(item);
+        return queue == null ? null : queue.peekFirst();
+    }
+
+    public Hold find(LibraryItem item, Member member) {
+        Deque<Hold> queue = queues.get(item);
+        if (queue == null) return null;
+        for (Hold hold : queue) {
+            if (hold.getMember() == member) return hold;
+        }
+        return null;
+    }
+
+    /**
+     * Returns the 1-based position of the hold in its queue, or 0 if it is not queued.
+     */
+    public int positionOf(Hold hold) {
+        Deque<Hold> queue = queues.get(hold.getItem());
+        if (queue == null) return 0;
+        int position = 1;
+        for (Hold queued : queue) {
+            if (queued == hold) return position;
+            position++;
+        }
+        return 0;
+    }
+
+    /**
+     * Returns the holds whose item is currently set aside, one per item at most.
+     */
+    public List<Hold> readyHolds() {
+        List<Hold> ready = new ArrayList<>();
+        for (Deque<Hold> queue : queues.values()) {
+            Hold head = queue.peekFirst();
+            if (head != null && head.isReady()) ready.add(head);
+        }
+        return ready;
+    }
+
+    /**
+     * Returns every hold, each item's queue in order.
+     */
+    public List<Hold> all() {
+        List<Hold> holds = new ArrayList<>();
+        queues.values().forEach(holds::addAll);
+        return holds;
+    }
+
+    public List<Hold> forMember(Member member) {
+        List<Hold> holds = new ArrayList<>();
+        for (Deque<Hold> queue : queues.values()) {
+            for (Hold hold : queue) {
+                if (hold.getMember() == member) holds.add(hold);
+            }
+        }
+        return holds;
+    }
+}
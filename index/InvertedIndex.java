@@ -0,0 +1,178 @@
+package index;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * A tokenized inverted index mapping search terms to the documents that contain them.
+ * Each query term is matched as a prefix of the indexed tokens, multiple terms are
+ * combined with AND semantics, and results are ranked by how well they match.
+ * The cost of a query is proportional to the postings it touches, not the catalog size.
+ * Queries run concurrently with each other; additions take an exclusive lock.
+ */
+public class InvertedIndex<T> {
+
+    private static final int EXACT_MATCH_WEIGHT = 2;
+    private static final int PREFIX_MATCH_WEIGHT = 1;
+
+    // token -> (document -> number of occurrences), kept sorted for prefix range scans
+    private final TreeMap<String, Map<T, Integer>> postings = new TreeMap<>();
+    // Insertion order of each document, used as a stable tie-breaker when ranking
+    private final Map<T, Integer> ordinals = new HashMap<>();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    public void add(T document, List<String> fields) {
+        lock.writeLock().lock();
+        try {
+            if (ordinals.containsKey(document)) return;
+            ordinals.put(document, ordinals.size());
+            for (String field : fields) {
+                for (String token : tokenize(field)) {
+                    postings.computeIfAbsent(token, t -> new LinkedHashMap<>()).merge(document, 1, Integer::sum);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Adds many documents at once. Tokenizing runs in parallel outside the lock;
+     * only the postings updates are made under it, in one acquisition.
+     */
+    public void addAll(List<? extends T> documents, Function<? super T, List<String>> fields) {
+        List<List<String>> tokens = documents.parallelStream()
+            .map(document -> {
+                List<String> documentTokens = new ArrayList<>();
+                for (String field : fields.apply(document)) {
+                    documentTokens.addAll(tokenize(field));
+                }
+                return documentTokens;
+            })
+            .collect(Collectors.toList());
+
+        lock.writeLock().lock();
+        try {
+            for (int i = 0; i < documents.size(); i++) {
+                T document = documents.get(i);
+                if (ordinals.containsKey(document)) continue;
+                ordinals.put(document, ordinals.size());
+                for (String token : tokens.get(i)) {
+                    postings.computeIfAbsent(token, t -> new LinkedHashMap<>()).merge(document, 1, Integer::sum);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return ordinals.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns every document matching all terms of the query, best match first.
+     */
+    public List<T> search(String query) {
+        List<String> terms = tokenize(query);
+        if (terms.isEmpty()) return new ArrayList<>();
+
+        lock.readLock().lock();
+        try {
+            return rank(terms);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private List<T> rank(List<String> terms) {
+        // Resolve each term to the token range it covers, then intersect smallest first
+        List<TermRange<T>> ranges = new ArrayList<>();
+        for (String term : terms) {
+            TermRange<T> range = new TermRange<>(term, postings.subMap(term, true, term + Character.MAX_VALUE, false));
+            if (range.postingCount == 0) return new ArrayList<>();
+            ranges.add(range);
+        }
+        ranges.sort((a, b) -> Integer.compare(a.postingCount, b.postingCount));
+
+        Map<T, Integer> scores = null;
+        for (TermRange<T> range : ranges) {
+            scores = score(range, scores);
+            if (scores.isEmpty()) return new ArrayList<>();
+        }
+
+        Map<T, Integer> finalScores = scores;
+        List<T> results = new ArrayList<>(finalScores.keySet());
+        results.sort((a, b) -> {
+            int byScore = Integer.compare(finalScores.get(b), finalScores.get(a));
+            return byScore != 0 ? byScore : Integer.compare(ordinals.get(a), ordinals.get(b));
+        });
+        return results;
+    }
+
+    // Scores the documents in a term's range, restricted to the previous candidates when present
+    private Map<T, Integer> score(TermRange<T> range, Map<T, Integer> candidates) {
+        Map<T, Integer> termScores = new HashMap<>();
+        for (Map.Entry<String, Map<T, Integer>> entry : range.tokens.entrySet()) {
+            int weight = entry.getKey().equals(range.term) ? EXACT_MATCH_WEIGHT : PREFIX_MATCH_WEIGHT;
+            for (Map.Entry<T, Integer> posting : entry.getValue().entrySet()) {
+                T document = posting.getKey();
+                if (candidates != null && !candidates.containsKey(document)) continue;
+                termScores.merge(document, posting.getValue() * weight, Integer::sum);
+            }
+        }
+        if (candidates != null) {
+            termScores.replaceAll((document, score) -> score + candidates.get(document));
+        }
+        return termScores;
+    }
+
+    private static class TermRange<T> {
+        final String term;
+        final NavigableMap<String, Map<T, Integer>> tokens;
+        final int postingCount;
+
+        TermRange(String term, NavigableMap<String, Map<T, Integer>> tokens) {
+            this.term = term;
+            this.tokens = tokens;
+            int count = 0;
+            for (Map<T, Integer> documents : tokens.values()) {
+                count += documents.size();
+            }
+            this.postingCount = count;
+        }
+    }
+
+    /**
+     * Splits text into lower-case alphanumeric tokens.
+     */
+    public static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null) return tokens;
+        int length = text.length();
+        int start = -1;
+        for (int i = 0; i <= length; i++) {
+            boolean wordChar = i < length && Character.isLetterOrDigit(text.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                tokens.add(text.substring(start, i).toLowerCase());
+                start = -1;
+            }
+        }
+        return tokens;
+    }
+}
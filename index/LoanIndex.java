@@ -0,0 +1,120 @@
+package index;
+
+import models.Loan;
+import models.Member;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The active loans, keyed by item and grouped by member, so finding the loan on an item,
+ * listing a member's loans and checking a member's loan count are all O(1).
+ *
+ * Borrow limits are enforced by reserving a slot before a loan is opened: the reservation is a
+ * compare-and-set on the member's slot count, so concurrent checkouts by one member cannot
+ * overshoot the limit even though they lock different items.
+ * IDs are matched case-insensitively, like the library's primary-key indexes.
+ */
+public class LoanIndex {
+
+    private static class MemberLoans {
+        final Set<Loan> loans = ConcurrentHashMap.newKeySet();
+        // Open loans plus reservations not yet turned into loans
+        final AtomicInteger slots = new AtomicInteger();
+    }
+
+    private final Map<String, Loan> loansByItem = new ConcurrentHashMap<>();
+    private final Map<String, MemberLoans> loansByMember = new ConcurrentHashMap<>();
+
+    /**
+     * Reserves one of the member's loan slots if fewer than limit are taken. Returns false, reserving
+     * nothing, if the member is at the limit. A reservation must be followed by addReserved or cancel.
+     */
+    public boolean reserve(Member member, int limit) {
+        AtomicInteger slots = loansOf(member).slots;
+        while (true) {
+            int taken = slots.get();
+            if (taken >= limit) return false;
+            if (slots.compareAndSet(taken, taken + 1)) return true;
+        }
+    }
+
+    /**
+     * Releases a reservation that did not become a loan.
+     */
+    public void cancel(Member member) {
+        loansOf(member).slots.decrementAndGet();
+    }
+
+    /**
+     * Adds a loan opened against a reservation.
+     */
+    public void addReserved(Loan loan) {
+        loansByItem.put(key(loan.getItem().getItemId()), loan);
+        loansOf(loan.getMember()).loans.add(loan);
+    }
+
+    /**
+     * Adds a loan without checking limits, e.g. one loaded from disk. Returns false if the item is already on loan.
+     */
+    public boolean add(Loan loan) {
+        if (loansByItem.putIfAbsent(key(loan.getItem().getItemId()), loan) != null) return false;
+        MemberLoans memberLoans = loansOf(loan.getMember());
+        memberLoans.slots.incrementAndGet();
+        memberLoans.loans.add(loan);
+        return true;
+    }
+
+    /**
+     * Removes the loan, freeing its member's slot. Returns false if it was not active.
+     */
+    public boolean remove(Loan loan) {
+        if (!loansByItem.remove(key(loan.getItem().getItemId()), loan)) return false;
+        MemberLoans memberLoans = loansOf(loan.getMember());
+        memberLoans.loans.remove(loan);
+        memberLoans.slots.decrementAndGet();
+        return true;
+    }
+
+    /**
+     * The active loan on the item, or null if it is not on loan.
+     */
+    public Loan forItem(String itemId) {
+        return loansByItem.get(key(itemId));
+    }
+
+    public List<Loan> forMember(String memberId) {
+        MemberLoans memberLoans = loansByMember.get(key(memberId));
+        return memberLoans == null ? Collections.emptyList() : new ArrayList<>(memberLoans.loans);
+    }
+
+    public int countFor(String memberId) {
+        MemberLoans memberLoans = loansByMember.get(key(memberId));
+        return memberLoans == null ? 0 : memberLoans.loans.size();
+    }
+
+    public int size() {
+        return loansByItem.size();
+    }
+
+    /**
+     * A live view of every active loan.
+     */
+    public Collection<Loan> all() {
+        return Collections.unmodifiableCollection(loansByItem.values());
+    }
+
+    private MemberLoans loansOf(Member member) {
+        return loansByMember.computeIfAbsent(key(member.getMemberId()), k -> new MemberLoans());
+    }
+
+    private static String key(String id) {
+        return id.toUpperCase(Locale.ROOT);
+    }
+}
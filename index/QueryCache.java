@@ -0,0 +1,190 @@
+package index;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A bounded LRU cache of search results, keyed by the normalized query.
+ *
+ * Results are lists of live documents, so changes to a document's state (such as an item's status)
+ * show up without invalidation. Only a new document can change which documents a query returns,
+ * and only for the queries it matches: each term of such a query is a prefix of one of its tokens.
+ * Adding a document therefore evicts exactly those entries, found through a map from cached terms to queries.
+ *
+ * A result computed while a document was being added is not cached, since it may predate the addition.
+ */
+public class QueryCache<T> {
+
+    private static class Entry<T> {
+        final List<String> terms;
+        final List<T> results;
+
+        Entry(List<String> terms, List<T> results) {
+            this.terms = terms;
+            this.results = results;
+        }
+    }
+
+    private final int capacity;
+    private final int maxResultSize;
+    private final LinkedHashMap<String, Entry<T>> entries = new LinkedHashMap<>(16, 0.75f, true);
+    // term -> normalized queries containing it, for finding the entries a new document affects
+    private final Map<String, Set<String>> queriesByTerm = new HashMap<>();
+    // Advanced by every invalidation; a result is only cached if none happened while it was computed
+    private final AtomicLong epoch = new AtomicLong();
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private final AtomicLong invalidations = new AtomicLong();
+
+    /**
+     * Holds up to capacity queries; results longer than maxResultSize are not cached.
+     */
+    public QueryCache(int capacity, int maxResultSize) {
+        this.capacity = capacity;
+        this.maxResultSize = maxResultSize;
+    }
+
+    /**
+     * Terms are sorted, since ranking does not depend on their order: "ring tolkien" and "Tolkien, ring" share an entry.
+     */
+    public static String key(List<String> terms) {
+        List<String> sorted = new ArrayList<>(terms);
+        Collections.sort(sorted);
+        return String.join(" ", sorted);
+    }
+
+    // --- Lookup ---
+
+    /**
+     * Returns the cached results, or null on a miss.
+     */
+    public synchronized List<T> get(String key) {
+        Entry<T> entry = entries.get(key);
+        if (entry == null) {
+            misses.incrementAndGet();
+            return null;
+        }
+        hits.incrementAndGet();
+        return entry.results;
+    }
+
+    /**
+     * Read before computing a result, and passed to put.
+     */
+    public long epoch() {
+        return epoch.get();
+    }
+
+    /**
+     * Caches the results unless the cache was invalidated since the given epoch was read.
+     * Returns the results as they should be handed out: unmodifiable, since they may be shared.
+     */
+    public synchronized List<T> put(String key, List<String> terms, List<T> results, long startEpoch) {
+        List<T> shared = Collections.unmodifiableList(results);
+        if (terms.isEmpty() || results.size() > maxResultSize || epoch.get() != startEpoch) return shared;
+
+        if (entries.put(key, new Entry<>(terms, shared)) == null) {
+            for (String term : terms) {
+                queriesByTerm.computeIfAbsent(term, t -> new HashSet<>()).add(key);
+            }
+        }
+        if (entries.size() > capacity) {
+            Iterator<Map.Entry<String, Entry<T>>> eldest = entries.entrySet().iterator();
+            Map.Entry<String, Entry<T>> evicted = eldest.next();
+            eldest.remove();
+            unlinkTerms(evicted.getKey(), evicted.getValue());
+            evictions.incrementAndGet();
+        }
+        return shared;
+    }
+
+    // --- Invalidation ---
+
+    /**
+     * Drops the cached queries that a new document with the given searchable fields would match.
+     */
+    public void documentAdded(List<String> fields) {
+        epoch.incrementAndGet();
+        synchronized (this) {
+            if (entries.isEmpty()) return;
+            List<String> tokens = new ArrayList<>();
+            for (String field : fields) {
+                tokens.addAll(InvertedIndex.tokenize(field));
+            }
+            // A query term can only match a token it is a prefix of, so look up every prefix of every token
+            Set<String> candidates = new HashSet<>();
+            for (String token : tokens) {
+                for (int end = 1; end <= token.length(); end++) {
+                    Set<String> queries = queriesByTerm.get(token.substring(0, end));
+                    if (queries != null) candidates.addAll(queries);
+                }
+            }
+            for (String key : candidates) {
+                Entry<T> entry = entries.get(key);
+                if (entry != null && matchesAll(entry.terms, tokens)) {
+                    entries.remove(key);
+                    unlinkTerms(key, entry);
+                    invalidations.incrementAndGet();
+                }
+            }
+        }
+    }
+
+    /**
+     * Drops every entry, e.g. after a bulk change where checking each query is not worth it.
+     */
+    public void clear() {
+        epoch.incrementAndGet();
+        synchronized (this) {
+            invalidations.addAndGet(entries.size());
+            entries.clear();
+            queriesByTerm.clear();
+        }
+    }
+
+    private static boolean matchesAll(List<String> terms, List<String> tokens) {
+        for (String term : terms) {
+            boolean matched = false;
+            for (String token : tokens) {
+                if (token.startsWith(term)) {
+                    matched = true;
+                    break;
+                }
+            }
+            if (!matched) return false;
+        }
+        return true;
+    }
+
+    private void unlinkTerms(String key, Entry<T> entry) {
+        for (String term : entry.terms) {
+            Set<String> queries = queriesByTerm.get(term);
+            if (queries == null) continue;
+            queries.remove(key);
+            if (queries.isEmpty()) queriesByTerm.remove(term);
+        }
+    }
+
+    // --- Statistics ---
+
+    public synchronized int size() { return entries.size(); }
+    public long getHits() { return hits.get(); }
+    public long getMisses() { return misses.get(); }
+    public long getEvictions() { return evictions.get(); }
+    public long getInvalidations() { return invalidations.get(); }
+
+    public double getHitRate() {
+        long lookups = hits.get() + misses.get();
+        return lookups == 0 ? 0 : (double) hits.get() / lookups;
+    }
+}
@@ -0,0 +1,13 @@
+package interfaces;
+
+/**
+ * Hands out unique ID numbers. Implementations must be safe for concurrent use.
+ */
+public interface IdGenerator {
+    int next();
+
+    /**
+     * Reserves count consecutive numbers and returns the first.
+     */
+    int reserve(int count);
+}
@@ -1,5 +1,12 @@
 package interfaces;
 
+import java.util.List;
+
 public interface Searchable {
     boolean matches(String query);
-}
\ No newline at end of file
+
+    /**
+     * Returns the raw text fields that should be tokenized into the search index.
+     */
+    List<String> getSearchableFields();
+}
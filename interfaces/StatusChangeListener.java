@@ -0,0 +1,12 @@
+package interfaces;
+
+import models.ItemStatus;
+import models.LibraryItem;
+
+/**
+ * Notified after an item's status changes. Notifications for one item may arrive out of order
+ * when transitions race, so implementations should consult the item's current status.
+ */
+public interface StatusChangeListener {
+    void statusChanged(LibraryItem item, ItemStatus previous, ItemStatus current);
+}
@@ -0,0 +1,62 @@
+package metrics;
+
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+/**
+ * The registry of operation statistics. Each operation is published on the platform
+ * MBean server as libratech:type=Operation,name=<name> the first time it is requested.
+ */
+public final class Metrics {
+
+    private static final String DOMAIN = "libratech";
+    private static final Map<String, OperationStats> OPERATIONS = new ConcurrentHashMap<>();
+
+    private Metrics() {
+    }
+
+    /**
+     * Returns the statistics for the named operation, creating and registering them if needed.
+     * Intended to be called once and kept in a static field, not on every operation.
+     */
+    public static OperationStats operation(String name) {
+        return OPERATIONS.computeIfAbsent(name, Metrics::register);
+    }
+
+    private static OperationStats register(String name) {
+        OperationStats stats = new OperationStats(name);
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(stats, new ObjectName(DOMAIN + ":type=Operation,name=" + name));
+        } catch (JMException e) {
+            System.err.println("Error registering MBean for " + name + ": " + e.getMessage());
+        }
+        return stats;
+    }
+
+    public static List<OperationStats> all() {
+        List<OperationStats> all = new ArrayList<>(OPERATIONS.values());
+        all.sort(Comparator.comparing(OperationStats::getName));
+        return all;
+    }
+
+    /**
+     * Prints one line per operation that has been called at least once.
+     */
+    public static void dump(PrintStream out) {
+        out.println(String.format("%-30s %9s %7s %10s %10s %10s %10s %10s %12s %12s",
+            "Operation", "Count", "Errors", "Mean(us)", "p50(us)", "p99(us)", "p999(us)", "Max(us)", "Read(B)", "Written(B)"));
+        for (OperationStats stats : all()) {
+            if (stats.getCount() == 0) continue;
+            out.println(String.format("%-30s %9d %7d %10.1f %10.1f %10.1f %10.1f %10.1f %12d %12d",
+                stats.getName(), stats.getCount(), stats.getErrorCount(), stats.getMeanMicros(), stats.getP50Micros(),
+                stats.getP99Micros(), stats.getP999Micros(), stats.getMaxMicros(), stats.getBytesRead(), stats.getBytesWritten()));
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package metrics;
+
+/**
+ * The JMX view of one operation's statistics. Latencies are reported in microseconds.
+ */
+public interface OperationStatsMBean {
+    long getCount();
+    long getErrorCount();
+    long getBytesRead();
+    long getBytesWritten();
+    double getMeanMicros();
+    double getP50Micros();
+    double getP99Micros();
+    double getP999Micros();
+    double getMaxMicros();
+    void reset();
+}
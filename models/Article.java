@@ -1,5 +1,9 @@
 package models;
 
+import java.io.PrintWriter;
+import java.util.Arrays;
+import java.util.List;
+
 public class Article extends LibraryItem {
     private String author;
     private String publication; // e.g., "Journal of Computer Science"
@@ -17,14 +21,17 @@ public class Article extends LibraryItem {
         this.publication = publication;
     }
     
+    public String getAuthor() { return author; }
+    public String getPublication() { return publication; }
+
     @Override
-    public void display() {
-        System.out.println("Type: Article");
-        System.out.println("ID: " + getItemId());
-        System.out.println("Title: " + getTitle());
-        System.out.println("Author: " + author);
-        System.out.println("Publication: " + publication);
-        System.out.println("Status: " + getStatus());
+    public void display(PrintWriter out) {
+        out.println("Type: Article");
+        out.println("ID: " + getItemId());
+        out.println("Title: " + getTitle());
+        out.println("Author: " + author);
+        out.println("Publication: " + publication);
+        out.println("Status: " + getStatus());
     }
 
     @Override
@@ -34,14 +41,24 @@ public class Article extends LibraryItem {
                author.toLowerCase().contains(lowerCaseQuery) ||
                publication.toLowerCase().contains(lowerCaseQuery);
     }
+
+    @Override
+    public List<String> getSearchableFields() {
+        return Arrays.asList(getTitle(), author, publication);
+    }
     
     // --- CSV Methods ---
+    public static final char DELIMITER = ',';
+
     public String toCsvString() {
-        return String.join(",", getItemId(), getTitle(), author, publication, getStatus().toString());
+        return CsvFormat.join(DELIMITER, getItemId(), getTitle(), author, publication, getStatus().toString());
     }
 
     public static Article fromCsvString(String csvLine) {
-        String[] parts = csvLine.split(",");
+        return fromCsvFields(CsvFormat.split(csvLine, DELIMITER));
+    }
+
+    public static Article fromCsvFields(String[] parts) {
         return new Article(parts[0], parts[1], parts[2], parts[3], ItemStatus.valueOf(parts[4]));
     }
 }
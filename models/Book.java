@@ -1,5 +1,9 @@
 package models;
 
+import java.io.PrintWriter;
+import java.util.Arrays;
+import java.util.List;
+
 public class Book extends LibraryItem {
     private String author;
     private String isbn;
@@ -16,14 +20,17 @@ public class Book extends LibraryItem {
         this.isbn = isbn;
     }
 
+    public String getAuthor() { return author; }
+    public String getIsbn() { return isbn; }
+
     @Override
-    public void display() {
-        System.out.println("Type: Book");
-        System.out.println("ID: " + getItemId());
-        System.out.println("Title: " + getTitle());
-        System.out.println("Author: " + author);
-        System.out.println("ISBN: " + isbn);
-        System.out.println("Status: " + getStatus());
+    public void display(PrintWriter out) {
+        out.println("Type: Book");
+        out.println("ID: " + getItemId());
+        out.println("Title: " + getTitle());
+        out.println("Author: " + author);
+        out.println("ISBN: " + isbn);
+        out.println("Status: " + getStatus());
     }
     
     @Override
@@ -31,15 +38,23 @@ public class Book extends LibraryItem {
         String lcQuery = query.toLowerCase();
         return super.matches(lcQuery) || author.toLowerCase().contains(lcQuery) || isbn.toLowerCase().contains(lcQuery);
     }
+
+    @Override
+    public List<String> getSearchableFields() {
+        return Arrays.asList(getTitle(), author, isbn);
+    }
     
+    public static final char DELIMITER = ';';
+
     public String toCsvString() {
-        final String DELIMITER = ";";
-        return String.join(DELIMITER, getItemId(), getTitle(), author, isbn, getStatus().toString());
+        return CsvFormat.join(DELIMITER, getItemId(), getTitle(), author, isbn, getStatus().toString());
     }
 
     public static Book fromCsvString(String csvLine) {
-        final String DELIMITER = ";";
-        String[] parts = csvLine.split(DELIMITER);
+        return fromCsvFields(CsvFormat.split(csvLine, DELIMITER));
+    }
+
+    public static Book fromCsvFields(String[] parts) {
         return new Book(parts[0], parts[1], parts[2], parts[3], ItemStatus.valueOf(parts[4]));
     }
 }
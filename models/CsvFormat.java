@@ -0,0 +1,90 @@
+package models;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Formats and splits delimited records.
+ * Fields containing the delimiter, a double quote or a line break are wrapped in double quotes,
+ * with embedded quotes doubled, so titles such as "War, and Peace" survive a round trip.
+ */
+public final class CsvFormat {
+
+    private static final char QUOTE = '"';
+
+    private CsvFormat() {}
+
+    public static String join(char delimiter, String... fields) {
+        StringBuilder line = new StringBuilder();
+        for (int i = 0; i < fields.length; i++) {
+            if (i > 0) line.append(delimiter);
+            appendField(line, fields[i], delimiter);
+        }
+        return line.toString();
+    }
+
+    private static void appendField(StringBuilder line, String field, char delimiter) {
+        if (!needsQuoting(field, delimiter)) {
+            line.append(field);
+            return;
+        }
+        line.append(QUOTE);
+        for (int i = 0; i < field.length(); i++) {
+            char c = field.charAt(i);
+            if (c == QUOTE) line.append(QUOTE);
+            line.append(c);
+        }
+        line.append(QUOTE);
+    }
+
+    private static boolean needsQuoting(String field, char delimiter) {
+        for (int i = 0; i < field.length(); i++) {
+            char c = field.charAt(i);
+            if (c == delimiter || c == QUOTE || c == '\n' || c == '\r') return true;
+        }
+        return false;
+    }
+
+    /**
+     * Splits a single record into its fields, honouring quoted fields.
+     */
+    public static String[] split(String line, char delimiter) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean inQuotes = false;
+        boolean closedQuote = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (inQuotes) {
+                if (c == QUOTE) {
+                    inQuotes = false;
+                    closedQuote = true;
+                } else {
+                    field.append(c);
+                }
+                continue;
+            }
+            if (c == QUOTE) {
+                if (closedQuote) {
+                    field.append(QUOTE); // An escaped "" inside a quoted field
+                    inQuotes = true;
+                    closedQuote = false;
+                } else if (field.length() == 0) {
+                    inQuotes = true;
+                } else {
+                    field.append(c);
+                }
+                continue;
+            }
+            closedQuote = false;
+            if (c == delimiter) {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+        return fields.toArray(new String[0]);
+    }
+}
@@ -1,30 +1,65 @@
 package models;
 
 import java.time.LocalDate;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class Fine {
-    
-    private final Loan associatedLoan;
+    private static final AtomicInteger nextId = new AtomicInteger(1);
+
+    private final String fineId;
+    private final Member member;
+    private final String memberId;
+    private final String itemId;
     private final double amount;
-    private boolean isPaid;
-    @SuppressWarnings("unused")
+    private volatile boolean isPaid;
     private final LocalDate dateAssessed;
 
     public Fine(Loan loan, double amount) {
-        this.associatedLoan = loan;
+        this(loan, amount, LocalDate.now());
+    }
+
+    public Fine(Loan loan, double amount, LocalDate dateAssessed) {
+        this("F" + String.format("%03d", nextId.getAndIncrement()), loan.getMember(), loan.getMember().getMemberId(),
+            loan.getItem().getItemId(), amount, dateAssessed, false);
+    }
+
+    /**
+     * Recreates a fine from the ledger. The member may be null if it no longer exists.
+     */
+    public Fine(String fineId, Member member, String memberId, String itemId, double amount, LocalDate dateAssessed, boolean isPaid) {
+        this.fineId = fineId;
+        this.member = member;
+        this.memberId = memberId;
+        this.itemId = itemId;
         this.amount = amount;
-        this.isPaid = false;
-        this.dateAssessed = LocalDate.now();
+        this.dateAssessed = dateAssessed;
+        this.isPaid = isPaid;
+    }
+
+    public String getFineId() {
+        return fineId;
     }
 
     public Member getMember() {
-        return associatedLoan.getMember();
+        return member;
+    }
+
+    public String getMemberId() {
+        return memberId;
+    }
+
+    public String getItemId() {
+        return itemId;
     }
 
     public double getAmount() {
         return amount;
     }
 
+    public LocalDate getDateAssessed() {
+        return dateAssessed;
+    }
+
     public boolean isPaid() {
         return isPaid;
     }
@@ -32,5 +67,13 @@ public class Fine {
     public void markAsPaid() {
         this.isPaid = true;
     }
-}
 
+    /**
+     * Ensures newly assessed fines get IDs above every ID already in the ledger.
+     */
+    public static void syncNextId(String highestFineId) {
+        if (highestFineId == null) return;
+        int highest = Integer.parseInt(highestFineId.replace("F", ""));
+        nextId.accumulateAndGet(highest + 1, Math::max);
+    }
+}
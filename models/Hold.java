@@ -0,0 +1,57 @@
+package models;
+
+import java.time.LocalDate;
+import java.util.Map;
+
+/**
+ * A member's place in the queue for an item. Once the item is set aside for the hold,
+ * it carries the last day on which the member can pick the item up.
+ */
+public class Hold {
+    private final LibraryItem item;
+    private final Member member;
+    private final LocalDate placedOn;
+    // Null while the member is still waiting
+    private volatile LocalDate expiresOn;
+
+    public Hold(LibraryItem item, Member member, LocalDate placedOn) {
+        this(item, member, placedOn, null);
+    }
+
+    public Hold(LibraryItem item, Member member, LocalDate placedOn, LocalDate expiresOn) {
+        this.item = item;
+        this.member = member;
+        this.placedOn = placedOn;
+        this.expiresOn = expiresOn;
+    }
+
+    public LibraryItem getItem() { return item; }
+    public Member getMember() { return member; }
+    public LocalDate getPlacedOn() { return placedOn; }
+    public LocalDate getExpiresOn() { return expiresOn; }
+    public void setExpiresOn(LocalDate expiresOn) { this.expiresOn = expiresOn; }
+
+    public boolean isReady() {
+        return expiresOn != null;
+    }
+
+    public static final char DELIMITER = ';';
+
+    public String toCsvString() {
+        return CsvFormat.join(DELIMITER, item.getItemId(), member.getMemberId(), placedOn.toString(), expiresOn == null ? "" : expiresOn.toString());
+    }
+
+    /**
+     * Parses a hold, resolving its item and member through the given ID lookups.
+     * Returns null if either reference cannot be resolved.
+     */
+    public static Hold fromCsvFields(String[] parts, Map<String, LibraryItem> itemsById, Map<String, Member> membersById) {
+        LibraryItem item = itemsById.get(parts[0]);
+        Member member = membersById.get(parts[1]);
+
+        if (item == null || member == null) return null;
+
+        LocalDate expiresOn = parts.length > 3 && !parts[3].isEmpty() ? LocalDate.parse(parts[3]) : null;
+        return new Hold(item, member, LocalDate.parse(parts[2]), expiresOn);
+    }
+}
@@ -10,14 +10,17 @@ public class Librarian extends User {
 
     public String getEmployeeId() { return employeeId; }
 
+    public static final char DELIMITER = ';';
+
     public String toCsvString() {
-        final String DELIMITER = ";";
-        return String.join(DELIMITER, employeeId, getName(), getPassword());
+        return CsvFormat.join(DELIMITER, employeeId, getName(), getPassword());
     }
 
     public static Librarian fromCsvString(String csvLine) {
-        final String DELIMITER = ";";
-        String[] parts = csvLine.split(DELIMITER);
+        return fromCsvFields(CsvFormat.split(csvLine, DELIMITER));
+    }
+
+    public static Librarian fromCsvFields(String[] parts) {
         return new Librarian(parts[1], parts[2], parts[0]);
     }
 }
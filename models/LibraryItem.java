@@ -1,49 +1,120 @@
 package models;
 
+import interfaces.IdGenerator;
 import interfaces.Searchable;
+import interfaces.StatusChangeListener;
+import util.LocalIdGenerator;
+import java.io.BufferedWriter;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
 
 public abstract class LibraryItem implements Searchable {
-    private static int nextId = 1;
+    private static volatile IdGenerator idGenerator = new LocalIdGenerator(1);
     private String itemId;
     private String title;
-    private ItemStatus status;
+    private final AtomicReference<ItemStatus> status;
+    private volatile StatusChangeListener statusListener;
 
     public LibraryItem(String title) {
-        this.itemId = "ITEM-" + String.format("%03d", nextId++);
+        this.itemId = formatId(idGenerator.next());
         this.title = title;
-        this.status = ItemStatus.AVAILABLE;
+        this.status = new AtomicReference<>(ItemStatus.AVAILABLE);
     }
 
     protected LibraryItem(String id, String title, ItemStatus status) {
         this.itemId = id;
         this.title = title;
-        this.status = status;
+        this.status = new AtomicReference<>(status);
     }
 
-    public abstract void display();
+    public void display() {
+        PrintWriter out = new PrintWriter(new BufferedWriter(new OutputStreamWriter(System.out)));
+        display(out);
+        out.flush();
+    }
+
+    /**
+     * Writes the item's details to the given writer. Flushing is left to the caller,
+     * so a whole listing can be rendered with a single write.
+     */
+    public abstract void display(PrintWriter out);
     
     @Override
     public boolean matches(String query) {
         return title.toLowerCase().contains(query.toLowerCase());
     }
 
+    @Override
+    public List<String> getSearchableFields() {
+        return Collections.singletonList(title);
+    }
+
     public String getItemId() { return itemId; }
     public String getTitle() { return title; }
-    public ItemStatus getStatus() { return status; }
-    public void setStatus(ItemStatus status) { this.status = status; }
+    public ItemStatus getStatus() { return status.get(); }
+
+    public void setStatus(ItemStatus status) {
+        ItemStatus previous = this.status.getAndSet(status);
+        if (previous != status) notifyStatusChanged(previous, status);
+    }
+
+    /**
+     * Atomically moves the item to a new status if it is currently in the expected one.
+     * Returns false, leaving the status untouched, if another transaction got there first.
+     */
+    public boolean compareAndSetStatus(ItemStatus expected, ItemStatus update) {
+        if (!status.compareAndSet(expected, update)) return false;
+        if (expected != update) notifyStatusChanged(expected, update);
+        return true;
+    }
+
+    /**
+     * Registers the listener told about every status change, e.g. an index filing items by status.
+     */
+    public void setStatusListener(StatusChangeListener listener) {
+        this.statusListener = listener;
+    }
 
+    private void notifyStatusChanged(ItemStatus previous, ItemStatus current) {
+        StatusChangeListener listener = statusListener;
+        if (listener != null) listener.statusChanged(this, previous, current);
+    }
+
+    /**
+     * Sets where new items get their ID numbers, e.g. ranges leased from the data directory.
+     */
+    public static void setIdGenerator(IdGenerator generator) {
+        idGenerator = generator;
+    }
+
+    /**
+     * Restarts local numbering after the highest ID among the given items.
+     */
     public static void syncNextId(List<LibraryItem> items) {
-        if (items.isEmpty()) {
-            nextId = 1;
-            return;
-        }
-        int maxId = items.stream()
+        setIdGenerator(new LocalIdGenerator(highestIdNumber(items) + 1));
+    }
+
+    public static int highestIdNumber(List<LibraryItem> items) {
+        return items.stream()
             .map(item -> item.getItemId().replace("ITEM-", ""))
             .mapToInt(Integer::parseInt)
             .max()
             .orElse(0);
-        nextId = maxId + 1;
+    }
+
+    /**
+     * Atomically reserves a block of consecutive ID numbers and returns the first,
+     * so bulk imports can number their items without contending on the counter per item.
+     */
+    public static int reserveIds(int count) {
+        return idGenerator.reserve(count);
+    }
+
+    public static String formatId(int number) {
+        return "ITEM-" + String.format("%03d", number);
     }
 }
 
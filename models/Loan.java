@@ -1,44 +1,59 @@
 package models;
 
 import java.time.LocalDate;
-import java.util.List;
+import java.util.Map;
 
 public class Loan {
     private LibraryItem item;
     private Member member;
     private LocalDate borrowDate;
     private LocalDate dueDate;
+    // Overdue fines have been assessed for every day up to and including this date
+    private volatile LocalDate accruedThrough;
 
     public Loan(LibraryItem item, Member member, LocalDate borrowDate, LocalDate dueDate) {
+        this(item, member, borrowDate, dueDate, dueDate);
+    }
+
+    public Loan(LibraryItem item, Member member, LocalDate borrowDate, LocalDate dueDate, LocalDate accruedThrough) {
         this.item = item;
         this.member = member;
         this.borrowDate = borrowDate;
         this.dueDate = dueDate;
+        this.accruedThrough = accruedThrough;
     }
 
     public LibraryItem getItem() { return item; }
     public Member getMember() { return member; }
+    public LocalDate getBorrowDate() { return borrowDate; }
     public LocalDate getDueDate() { return dueDate; }
+    public LocalDate getAccruedThrough() { return accruedThrough; }
+    public void setAccruedThrough(LocalDate accruedThrough) { this.accruedThrough = accruedThrough; }
     
+    public static final char DELIMITER = ';';
+
     public String toCsvString() {
-        final String DELIMITER = ";";
-        return String.join(DELIMITER, item.getItemId(), member.getMemberId(), borrowDate.toString(), dueDate.toString());
+        return CsvFormat.join(DELIMITER, item.getItemId(), member.getMemberId(), borrowDate.toString(), dueDate.toString(), accruedThrough.toString());
     }
 
-    public static Loan fromCsvString(String csvLine, List<LibraryItem> allItems, List<User> allUsers) {
-        final String DELIMITER = ";";
-        String[] parts = csvLine.split(DELIMITER);
-        String itemId = parts[0];
-        String memberId = parts[1];
+    /**
+     * Parses a loan, resolving its item and member through the given ID lookups.
+     * Returns null if either reference cannot be resolved.
+     */
+    public static Loan fromCsvString(String csvLine, Map<String, LibraryItem> itemsById, Map<String, Member> membersById) {
+        return fromCsvFields(CsvFormat.split(csvLine, DELIMITER), itemsById, membersById);
+    }
 
-        LibraryItem item = allItems.stream().filter(i -> i.getItemId().equals(itemId)).findFirst().orElse(null);
-        Member member = allUsers.stream()
-            .filter(u -> u instanceof Member && ((Member) u).getMemberId().equals(memberId))
-            .map(u -> (Member) u).findFirst().orElse(null);
+    public static Loan fromCsvFields(String[] parts, Map<String, LibraryItem> itemsById, Map<String, Member> membersById) {
+        LibraryItem item = itemsById.get(parts[0]);
+        Member member = membersById.get(parts[1]);
 
         if (item == null || member == null) return null;
-        
-        return new Loan(item, member, LocalDate.parse(parts[2]), LocalDate.parse(parts[3]));
+
+        LocalDate dueDate = LocalDate.parse(parts[3]);
+        // Older files have no accrual column; nothing has been accrued beyond the due date then
+        LocalDate accruedThrough = parts.length > 4 ? LocalDate.parse(parts[4]) : dueDate;
+        return new Loan(item, member, LocalDate.parse(parts[2]), dueDate, accruedThrough);
     }
 }
 
@@ -0,0 +1,17 @@
+package models;
+
+/**
+ * A single (member, item) pair in a batch checkout or return.
+ */
+public class LoanRequest {
+    private final String memberId;
+    private final String itemId;
+
+    public LoanRequest(String memberId, String itemId) {
+        this.memberId = memberId;
+        this.itemId = itemId;
+    }
+
+    public String getMemberId() { return memberId; }
+    public String getItemId() { return itemId; }
+}
@@ -1,5 +1,9 @@
 package models;
 
+import java.io.PrintWriter;
+import java.util.Arrays;
+import java.util.List;
+
 public class Magazine extends LibraryItem {
     private String issueDate;
 
@@ -13,23 +17,33 @@ public class Magazine extends LibraryItem {
         this.issueDate = issueDate;
     }
 
+    public String getIssueDate() { return issueDate; }
+
+    @Override
+    public void display(PrintWriter out) {
+        out.println("Type: Magazine");
+        out.println("ID: " + getItemId());
+        out.println("Title: " + getTitle());
+        out.println("Issue Date: " + issueDate);
+        out.println("Status: " + getStatus());
+    }
+
     @Override
-    public void display() {
-        System.out.println("Type: Magazine");
-        System.out.println("ID: " + getItemId());
-        System.out.println("Title: " + getTitle());
-        System.out.println("Issue Date: " + issueDate);
-        System.out.println("Status: " + getStatus());
+    public List<String> getSearchableFields() {
+        return Arrays.asList(getTitle(), issueDate);
     }
 
+    public static final char DELIMITER = ';';
+
     public String toCsvString() {
-        final String DELIMITER = ";";
-        return String.join(DELIMITER, getItemId(), getTitle(), issueDate, getStatus().toString());
+        return CsvFormat.join(DELIMITER, getItemId(), getTitle(), issueDate, getStatus().toString());
     }
 
     public static Magazine fromCsvString(String csvLine) {
-        final String DELIMITER = ";";
-        String[] parts = csvLine.split(DELIMITER);
+        return fromCsvFields(CsvFormat.split(csvLine, DELIMITER));
+    }
+
+    public static Magazine fromCsvFields(String[] parts) {
         return new Magazine(parts[0], parts[1], parts[2], ItemStatus.valueOf(parts[3]));
     }
 }
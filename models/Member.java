@@ -1,15 +1,21 @@
 package models;
 
+import interfaces.IdGenerator;
 import interfaces.Searchable;
+import util.LocalIdGenerator;
+import java.io.BufferedWriter;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.util.Arrays;
 import java.util.List;
 
 public class Member extends User implements Searchable {
-    private static int nextId = 1;
+    private static volatile IdGenerator idGenerator = new LocalIdGenerator(1);
     private String memberId;
 
     public Member(String name, String password) {
         super(name, password);
-        this.memberId = "M" + String.format("%03d", nextId++);
+        this.memberId = "M" + String.format("%03d", idGenerator.next());
     }
 
     private Member(String id, String name, String password) {
@@ -18,8 +24,14 @@ public class Member extends User implements Searchable {
     }
     
     public void display() {
-        System.out.println("Member Name: " + getName());
-        System.out.println("Member ID: " + memberId);
+        PrintWriter out = new PrintWriter(new BufferedWriter(new OutputStreamWriter(System.out)));
+        display(out);
+        out.flush();
+    }
+
+    public void display(PrintWriter out) {
+        out.println("Member Name: " + getName());
+        out.println("Member ID: " + memberId);
     }
 
     @Override
@@ -27,32 +39,49 @@ public class Member extends User implements Searchable {
         String lcQuery = query.toLowerCase();
         return getName().toLowerCase().contains(lcQuery) || memberId.toLowerCase().contains(lcQuery);
     }
+
+    @Override
+    public List<String> getSearchableFields() {
+        return Arrays.asList(getName(), memberId);
+    }
     
     public String getMemberId() { return memberId; }
 
+    public static final char DELIMITER = ';';
+
     public String toCsvString() {
-        final String DELIMITER = ";";
-        return String.join(DELIMITER, memberId, getName(), getPassword());
+        return CsvFormat.join(DELIMITER, memberId, getName(), getPassword());
     }
 
     public static Member fromCsvString(String csvLine) {
-        final String DELIMITER = ";";
-        String[] parts = csvLine.split(DELIMITER);
+        return fromCsvFields(CsvFormat.split(csvLine, DELIMITER));
+    }
+
+    public static Member fromCsvFields(String[] parts) {
         return new Member(parts[0], parts[1], parts[2]);
     }
 
+    /**
+     * Sets where new members get their ID numbers, e.g. ranges leased from the data directory.
+     */
+    public static void setIdGenerator(IdGenerator generator) {
+        idGenerator = generator;
+    }
+
+    /**
+     * Restarts local numbering after the highest member ID among the given users.
+     */
     public static void syncNextId(List<User> users) {
-        if (users.isEmpty()) {
-            nextId = 1;
-            return;
-        }
-        int maxId = users.stream()
+        setIdGenerator(new LocalIdGenerator(highestIdNumber(users) + 1));
+    }
+
+    public static int highestIdNumber(List<User> users) {
+        return users.stream()
             .filter(u -> u instanceof Member)
             .map(u -> ((Member) u).getMemberId().replace("M", ""))
             .mapToInt(Integer::parseInt)
             .max()
             .orElse(0);
-        nextId = maxId + 1;
     }
 }
 
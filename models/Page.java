@@ -0,0 +1,24 @@
+package models;
+
+import java.util.List;
+
+/**
+ * One window of a listing, together with the cursor that fetches the next window.
+ * Cursors are opaque strings; a null next cursor means the listing is exhausted.
+ */
+public class Page<T> {
+    private final List<T> items;
+    private final String nextCursor;
+
+    public Page(List<T> items, String nextCursor) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<T> getItems() { return items; }
+    public String getNextCursor() { return nextCursor; }
+
+    public boolean hasMore() {
+        return nextCursor != null;
+    }
+}
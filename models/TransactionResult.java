@@ -0,0 +1,32 @@
+package models;
+
+/**
+ * The outcome of a circulation transaction such as a checkout or a return.
+ * Failed transactions carry the reason in their message and no loan.
+ */
+public class TransactionResult {
+    private final boolean success;
+    private final String message;
+    private final Loan loan;
+    private final Fine fine;
+
+    private TransactionResult(boolean success, String message, Loan loan, Fine fine) {
+        this.success = success;
+        this.message = message;
+        this.loan = loan;
+        this.fine = fine;
+    }
+
+    public static TransactionResult success(String message, Loan loan, Fine fine) {
+        return new TransactionResult(true, message, loan, fine);
+    }
+
+    public static TransactionResult failure(String message) {
+        return new TransactionResult(false, message, null, null);
+    }
+
+    public boolean isSuccess() { return success; }
+    public String getMessage() { return message; }
+    public Loan getLoan() { return loan; }
+    public Fine getFine() { return fine; }
+}
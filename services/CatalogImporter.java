@@ -0,0 +1,289 @@
+package services;
+
+import data.CsvReader;
+import models.*;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Predicate;
+
+/**
+ * Parses a bulk acquisitions file into new catalog items.
+ *
+ * Each row names its type followed by that type's fields, separated by semicolons:
+ *   BOOK;title;author;isbn
+ *   MAGAZINE;title;issue date
+ *   ARTICLE;title;author;publication
+ * An optional header row starting with "type" is skipped.
+ * Several rows may share an ISBN, each adding a copy of the book, unless unique ISBNs are requested.
+ *
+ * The file is tokenized in one sequential pass; rows are then validated and turned into items
+ * in parallel on a fork/join pool. When ISBNs must be unique, repeats are settled between the two
+ * parallel passes, in one sequential pass in row order, so the first row with an ISBN always wins.
+ * Each build task reserves one contiguous block of IDs for its valid rows,
+ * so numbering costs one atomic update per block rather than per item.
+ */
+public class CatalogImporter {
+
+    public static final char DELIMITER = ';';
+    private static final int ROWS_PER_TASK = 4096;
+
+    private final ForkJoinPool pool;
+
+    public CatalogImporter() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    public CatalogImporter(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * A row that could not be imported. Rows are numbered from 1 in file order, header included.
+     */
+    public static class Rejection {
+        private final int row;
+        private final String reason;
+
+        Rejection(int row, String reason) {
+            this.row = row;
+            this.reason = reason;
+        }
+
+        public int getRow() { return row; }
+        public String getReason() { return reason; }
+    }
+
+    public static class Result {
+        private final List<LibraryItem> items;
+        // The row each item came from, in the same order
+        private final int[] itemRows;
+        private final List<Rejection> rejections;
+        private final int rowCount;
+
+        Result(List<LibraryItem> items, int[] itemRows, List<Rejection> rejections, int rowCount) {
+            this.items = items;
+            this.itemRows = itemRows;
+            this.rejections = rejections;
+            this.rowCount = rowCount;
+        }
+
+        // Imported items in file order
+        public List<LibraryItem> getItems() { return items; }
+        // Rejected rows in file order
+        public List<Rejection> getRejections() { return rejections; }
+        public int getRowCount() { return rowCount; }
+
+        /**
+         * Returns a copy in which the items matching the predicate are rejected for the given reason.
+         * Their IDs are not reused.
+         */
+        public Result reject(Predicate<LibraryItem> predicate, String reason) {
+            List<LibraryItem> kept = new ArrayList<>(items.size());
+            int[] keptRows = new int[items.size()];
+            List<Rejection> rejected = new ArrayList<>(rejections);
+            for (int i = 0; i < items.size(); i++) {
+                if (predicate.test(items.get(i))) {
+                    rejected.add(new Rejection(itemRows[i], reason));
+                } else {
+                    keptRows[kept.size()] = itemRows[i];
+                    kept.add(items.get(i));
+                }
+            }
+            if (kept.size() == items.size()) return this;
+            rejected.sort(Comparator.comparingInt(Rejection::getRow));
+            return new Result(kept, Arrays.copyOf(keptRows, kept.size()), Collections.unmodifiableList(rejected), rowCount);
+        }
+    }
+
+    /**
+     * Reads and validates the file. With uniqueIsbns set, a book whose ISBN repeats an earlier row's is rejected;
+     * otherwise every such row adds another copy.
+     */
+    public Result importFile(Path file, boolean uniqueIsbns) throws IOException {
+        List<String[]> rows = new ArrayList<>();
+        CsvReader.read(file, DELIMITER, rows::add);
+        int first = !rows.isEmpty() && rows.get(0)[0].trim().equalsIgnoreCase("type") ? 1 : 0;
+
+        LibraryItem[] items = new LibraryItem[rows.size()];
+        String[] reasons = new String[rows.size()];
+        String[] isbns = new String[rows.size()];
+        pool.invoke(new ValidateTask(rows, first, rows.size(), reasons, isbns));
+
+        if (uniqueIsbns) {
+            Set<String> claimed = new HashSet<>();
+            for (int i = first; i < rows.size(); i++) {
+                if (reasons[i] == null && isbns[i] != null && !claimed.add(isbns[i])) {
+                    reasons[i] = "duplicate ISBN " + rows.get(i)[3];
+                }
+            }
+        }
+        pool.invoke(new BuildTask(rows, first, rows.size(), items, reasons));
+
+        List<LibraryItem> imported = new ArrayList<>(rows.size());
+        int[] itemRows = new int[rows.size()];
+        List<Rejection> rejections = new ArrayList<>();
+        for (int i = first; i < rows.size(); i++) {
+            if (items[i] != null) {
+                itemRows[imported.size()] = i + 1;
+                imported.add(items[i]);
+            } else {
+                rejections.add(new Rejection(i + 1, reasons[i]));
+            }
+        }
+        return new Result(imported, Arrays.copyOf(itemRows, imported.size()), Collections.unmodifiableList(rejections), rows.size() - first);
+    }
+
+    // --- Parallel Parsing ---
+
+    /**
+     * Checks each row's type and fields, recording why it is invalid and, for books, its normalized ISBN.
+     */
+    private static class ValidateTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final List<String[]> rows;
+        private final int from;
+        private final int to;
+        private final String[] reasons;
+        private final String[] isbns;
+
+        ValidateTask(List<String[]> rows, int from, int to, String[] reasons, String[] isbns) {
+            this.rows = rows;
+            this.from = from;
+            this.to = to;
+            this.reasons = reasons;
+            this.isbns = isbns;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > ROWS_PER_TASK) {
+                int middle = (from + to) >>> 1;
+                invokeAll(new ValidateTask(rows, from, middle, reasons, isbns),
+                          new ValidateTask(rows, middle, to, reasons, isbns));
+                return;
+            }
+            for (int i = from; i < to; i++) {
+                reasons[i] = validate(rows.get(i));
+                if (reasons[i] == null && rows.get(i)[0].trim().equalsIgnoreCase("BOOK")) {
+                    isbns[i] = normalizeIsbn(rows.get(i)[3]);
+                }
+            }
+        }
+    }
+
+    /**
+     * Turns the rows still valid after duplicate checks into items, numbering them from one reserved block per task.
+     */
+    private static class BuildTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final List<String[]> rows;
+        private final int from;
+        private final int to;
+        private final LibraryItem[] items;
+        private final String[] reasons;
+
+        BuildTask(List<String[]> rows, int from, int to, LibraryItem[] items, String[] reasons) {
+            this.rows = rows;
+            this.from = from;
+            this.to = to;
+            this.items = items;
+            this.reasons = reasons;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > ROWS_PER_TASK) {
+                int middle = (from + to) >>> 1;
+                invokeAll(new BuildTask(rows, from, middle, items, reasons),
+                          new BuildTask(rows, middle, to, items, reasons));
+                return;
+            }
+
+            int valid = 0;
+            for (int i = from; i < to; i++) {
+                if (reasons[i] == null) valid++;
+            }
+            if (valid == 0) return;
+
+            int nextId = LibraryItem.reserveIds(valid);
+            for (int i = from; i < to; i++) {
+                if (reasons[i] == null) {
+                    items[i] = build(rows.get(i), LibraryItem.formatId(nextId++));
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns why the row cannot be imported, or null if its type and fields are valid.
+     * Duplicate ISBNs are checked separately, in row order.
+     */
+    static String validate(String[] row) {
+        String type = row[0].trim().toUpperCase(Locale.ROOT);
+        int expected;
+        switch (type) {
+            case "BOOK":
+            case "ARTICLE":
+                expected = 4;
+                break;
+            case "MAGAZINE":
+                expected = 3;
+                break;
+            default:
+                return "unknown item type '" + row[0] + "'";
+        }
+        if (row.length != expected) {
+            return type + " rows need " + expected + " fields, found " + row.length;
+        }
+        for (int i = 1; i < row.length; i++) {
+            if (row[i].trim().isEmpty()) return "field " + (i + 1) + " is blank";
+        }
+        if (type.equals("BOOK")) {
+            String isbn = normalizeIsbn(row[3]);
+            if (isbn == null) return "invalid ISBN '" + row[3] + "'";
+        }
+        return null;
+    }
+
+    private static LibraryItem build(String[] row, String itemId) {
+        String status = ItemStatus.AVAILABLE.name();
+        switch (row[0].trim().toUpperCase(Locale.ROOT)) {
+            case "BOOK":
+                return Book.fromCsvFields(new String[] { itemId, row[1].trim(), row[2].trim(), row[3].trim(), status });
+            case "MAGAZINE":
+                return Magazine.fromCsvFields(new String[] { itemId, row[1].trim(), row[2].trim(), status });
+            default:
+                return Article.fromCsvFields(new String[] { itemId, row[1].trim(), row[2].trim(), row[3].trim(), status });
+        }
+    }
+
+    /**
+     * Strips hyphens and spaces from an ISBN-10 or ISBN-13. Returns null if what remains is not one.
+     */
+    public static String normalizeIsbn(String isbn) {
+        StringBuilder digits = new StringBuilder(13);
+        for (int i = 0; i < isbn.length(); i++) {
+            char c = isbn.charAt(i);
+            if (c == '-' || c == ' ') continue;
+            boolean checkDigitX = (c == 'X' || c == 'x') && digits.length() == 9;
+            if (!Character.isDigit(c) && !checkDigitX) return null;
+            digits.append(Character.toUpperCase(c));
+        }
+        int length = digits.length();
+        if (length == 13 && digits.indexOf("X") < 0) return digits.toString();
+        if (length == 10) return digits.toString();
+        return null;
+    }
+}
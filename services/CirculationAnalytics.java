@@ -0,0 +1,236 @@
+package services;
+
+import models.LibraryItem;
+import models.Loan;
+import java.io.PrintWriter;
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Circulation statistics kept up to date by borrow and return events: totals and counts per item type,
+ * the most borrowed titles, borrows and returns by hour of day, and daily rollups for the last DAYS_KEPT days.
+ * Every event costs O(1) and reports read only these aggregates, never the loan history.
+ * The aggregates live in memory and cover the events since the library was started.
+ *
+ * Recording takes no global lock: counters are atomic, and the popular-titles sketch is split into
+ * stripes by title, so only borrows of titles in the same stripe contend.
+ */
+public class CirculationAnalytics {
+
+    public static final int DAYS_KEPT = 90;
+    private static final int BUSIEST_HOURS_SHOWN = 5;
+    // Titles tracked by the popularity sketch across all stripes; reports show far fewer, so their ranking is reliable
+    private static final int TRACKED_TITLES = 256;
+    private static final int TITLE_STRIPES = 16;
+    // A daily counter packs the epoch day above the count, so moving a slot to a new day and counting are one CAS
+    private static final int COUNT_BITS = 40;
+    private static final long COUNT_MASK = (1L << COUNT_BITS) - 1;
+
+    /**
+     * Borrows and returns on one day.
+     */
+    public static class Day {
+        private final LocalDate date;
+        private final long borrows;
+        private final long returns;
+
+        Day(LocalDate date, long borrows, long returns) {
+            this.date = date;
+            this.borrows = borrows;
+            this.returns = returns;
+        }
+
+        public LocalDate getDate() { return date; }
+        public long getBorrows() { return borrows; }
+        public long getReturns() { return returns; }
+    }
+
+    private final Clock clock;
+
+    // --- Counters ---
+    private final LongAdder borrows = new LongAdder();
+    private final LongAdder returns = new LongAdder();
+    private final LongAdder overdueReturns = new LongAdder();
+    private final LongAdder loanDays = new LongAdder();
+    private final Map<String, LongAdder> borrowsByType = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> returnsByType = new ConcurrentHashMap<>();
+    // Each title always falls in the same stripe, so the stripes track disjoint titles
+    private final List<HeavyHitters<String>> popularTitles = new ArrayList<>(TITLE_STRIPES);
+
+    // --- Time Buckets ---
+    private final AtomicLongArray borrowsByHour = new AtomicLongArray(24);
+    private final AtomicLongArray returnsByHour = new AtomicLongArray(24);
+    // Ring buffers indexed by epoch day; a slot still holding an older day starts over from zero when reused
+    private final AtomicLongArray dailyBorrows = new AtomicLongArray(DAYS_KEPT);
+    private final AtomicLongArray dailyReturns = new AtomicLongArray(DAYS_KEPT);
+
+    public CirculationAnalytics(Clock clock) {
+        this.clock = clock;
+        for (int i = 0; i < TITLE_STRIPES; i++) {
+            popularTitles.add(new HeavyHitters<>(TRACKED_TITLES / TITLE_STRIPES));
+        }
+    }
+
+    public void recordBorrow(Loan loan) {
+        LocalDateTime now = LocalDateTime.now(clock);
+        borrows.increment();
+        borrowsByType.computeIfAbsent(typeOf(loan.getItem()), t -> new LongAdder()).increment();
+        String title = loan.getItem().getTitle();
+        popularTitles.get(Math.floorMod(title.hashCode(), TITLE_STRIPES)).offer(title);
+        borrowsByHour.incrementAndGet(now.getHour());
+        addToDay(dailyBorrows, now.toLocalDate());
+    }
+
+    public void recordReturn(Loan loan) {
+        LocalDateTime now = LocalDateTime.now(clock);
+        LocalDate today = now.toLocalDate();
+        returns.increment();
+        returnsByType.computeIfAbsent(typeOf(loan.getItem()), t -> new LongAdder()).increment();
+        if (today.isAfter(loan.getDueDate())) overdueReturns.increment();
+        loanDays.add(ChronoUnit.DAYS.between(loan.getBorrowDate(), today));
+        returnsByHour.incrementAndGet(now.getHour());
+        addToDay(dailyReturns, today);
+    }
+
+    private static void addToDay(AtomicLongArray counters, LocalDate date) {
+        long day = date.toEpochDay();
+        int slot = slot(day);
+        while (true) {
+            long current = counters.get(slot);
+            long slotDay = current >>> COUNT_BITS;
+            // An event for a day already pushed out of the window is dropped
+            if (slotDay > day) return;
+            long updated = slotDay == day ? current + 1 : day << COUNT_BITS | 1;
+            if (counters.compareAndSet(slot, current, updated)) return;
+        }
+    }
+
+    private static long countOn(AtomicLongArray counters, long day) {
+        long current = counters.get(slot(day));
+        return current >>> COUNT_BITS == day ? current & COUNT_MASK : 0;
+    }
+
+    private static int slot(long day) {
+        return (int) Math.floorMod(day, (long) DAYS_KEPT);
+    }
+
+    // --- Queries ---
+
+    public long getBorrowCount() { return borrows.sum(); }
+    public long getReturnCount() { return returns.sum(); }
+    public long getOverdueReturnCount() { return overdueReturns.sum(); }
+
+    public double getAverageLoanDays() {
+        long returned = returns.sum();
+        return returned == 0 ? 0 : (double) loanDays.sum() / returned;
+    }
+
+    public Map<String, Long> getBorrowsByType() {
+        return sums(borrowsByType);
+    }
+
+    public Map<String, Long> getReturnsByType() {
+        return sums(returnsByType);
+    }
+
+    /**
+     * The n most borrowed titles. Counts may overstate a title's borrows by at most its error.
+     */
+    public List<HeavyHitters.Entry<String>> getTopTitles(int n) {
+        // The overall top n are among the stripes' top n, since no title is counted in two stripes
+        List<HeavyHitters.Entry<String>> top = new ArrayList<>();
+        for (HeavyHitters<String> stripe : popularTitles) {
+            top.addAll(stripe.top(n));
+        }
+        top.sort((a, b) -> Long.compare(b.getCount(), a.getCount()));
+        return top.subList(0, Math.min(n, top.size()));
+    }
+
+    public long[] getBorrowsByHour() {
+        return toArray(borrowsByHour);
+    }
+
+    public long[] getReturnsByHour() {
+        return toArray(returnsByHour);
+    }
+
+    /**
+     * Borrows and returns on each of the last n days (at most DAYS_KEPT), oldest first, ending today.
+     */
+    public List<Day> getLastDays(int n) {
+        LocalDate today = LocalDate.now(clock);
+        List<Day> days = new ArrayList<>();
+        for (int i = Math.min(n, DAYS_KEPT) - 1; i >= 0; i--) {
+            LocalDate date = today.minusDays(i);
+            long day = date.toEpochDay();
+            days.add(new Day(date, countOn(dailyBorrows, day), countOn(dailyReturns, day)));
+        }
+        return days;
+    }
+
+    // --- Report ---
+
+    public void printReport(PrintWriter out, int topTitles, int days) {
+        out.println("\n--- Circulation Report ---");
+        out.printf("Borrows: %d   Returns: %d   Overdue returns: %d   Average loan: %.1f days%n",
+            getBorrowCount(), getReturnCount(), getOverdueReturnCount(), getAverageLoanDays());
+
+        out.println("\nBy item type (borrows / returns):");
+        Map<String, Long> returnsByType = getReturnsByType();
+        getBorrowsByType().forEach((type, borrowed) ->
+            out.printf("  %-10s %8d / %d%n", type, borrowed, returnsByType.getOrDefault(type, 0L)));
+
+        out.println("\nMost borrowed titles:");
+        List<HeavyHitters.Entry<String>> top = getTopTitles(topTitles);
+        if (top.isEmpty()) out.println("  No borrows recorded yet.");
+        for (int i = 0; i < top.size(); i++) {
+            HeavyHitters.Entry<String> entry = top.get(i);
+            String error = entry.getError() == 0 ? "" : " (at most " + entry.getError() + " overcounted)";
+            out.printf("  %2d. %s - %d%s%n", i + 1, entry.getKey(), entry.getCount(), error);
+        }
+
+        out.println("\nBusiest hours (borrows / returns):");
+        long[] hourlyBorrows = getBorrowsByHour();
+        long[] hourlyReturns = getReturnsByHour();
+        List<Integer> hours = new ArrayList<>();
+        for (int hour = 0; hour < 24; hour++) {
+            if (hourlyBorrows[hour] + hourlyReturns[hour] > 0) hours.add(hour);
+        }
+        hours.sort((a, b) -> Long.compare(hourlyBorrows[b] + hourlyReturns[b], hourlyBorrows[a] + hourlyReturns[a]));
+        for (int hour : hours.subList(0, Math.min(BUSIEST_HOURS_SHOWN, hours.size()))) {
+            out.printf("  %02d:00-%02d:59 %8d / %d%n", hour, hour, hourlyBorrows[hour], hourlyReturns[hour]);
+        }
+
+        out.println("\nLast " + days + " days (borrows / returns):");
+        for (Day day : getLastDays(days)) {
+            out.printf("  %s %8d / %d%n", day.getDate(), day.getBorrows(), day.getReturns());
+        }
+    }
+
+    private static String typeOf(LibraryItem item) {
+        return item.getClass().getSimpleName();
+    }
+
+    private static Map<String, Long> sums(Map<String, LongAdder> counters) {
+        Map<String, Long> sums = new TreeMap<>();
+        counters.forEach((type, counter) -> sums.put(type, counter.sum()));
+        return sums;
+    }
+
+    private static long[] toArray(AtomicLongArray counters) {
+        long[] values = new long[counters.length()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = counters.get(i);
+        }
+        return values;
+    }
+}
@@ -0,0 +1,57 @@
+package services;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs a task once a day at a fixed local time on a background daemon thread.
+ */
+public class DailyScheduler {
+
+    private final Clock clock;
+    private final LocalTime runAt;
+    private final Runnable task;
+    private final ScheduledExecutorService executor;
+
+    public DailyScheduler(Clock clock, LocalTime runAt, Runnable task) {
+        this.clock = clock;
+        this.runAt = runAt;
+        this.task = task;
+        this.executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "daily-scheduler");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public void start() {
+        executor.scheduleAtFixedRate(this::runSafely, delayUntilNextRun().toMillis(), TimeUnit.DAYS.toMillis(1), TimeUnit.MILLISECONDS);
+    }
+
+    public void stop() {
+        executor.shutdownNow();
+    }
+
+    Duration delayUntilNextRun() {
+        LocalDateTime now = LocalDateTime.now(clock);
+        LocalDateTime next = now.toLocalDate().atTime(runAt);
+        if (!next.isAfter(now)) {
+            next = next.plusDays(1);
+        }
+        return Duration.between(now, next);
+    }
+
+    // An exception would otherwise cancel all future runs
+    private void runSafely() {
+        try {
+            task.run();
+        } catch (RuntimeException e) {
+            System.err.println("Error in scheduled task: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package services;
+
+import models.Fine;
+import models.Loan;
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * Computes overdue fines for loans.
+ * Each loan remembers the last day it was charged for, so a day is never charged twice
+ * whether the fine is accrued by the daily pass or when the item comes back.
+ * The clock is injectable so the accrual logic can be driven deterministically.
+ */
+public class FineAccrualEngine {
+
+    public static final double DAILY_FINE = 0.25;
+
+    private final Clock clock;
+    private final double dailyFine;
+
+    public FineAccrualEngine(Clock clock) {
+        this(clock, DAILY_FINE);
+    }
+
+    public FineAccrualEngine(Clock clock, double dailyFine) {
+        this.clock = clock;
+        this.dailyFine = dailyFine;
+    }
+
+    public LocalDate today() {
+        return LocalDate.now(clock);
+    }
+
+    /**
+     * Charges the loan for every overdue day not yet charged, up to and including the given day,
+     * and advances its accrual marker. Returns null when nothing new is owed.
+     * Callers must hold the loan's item lock.
+     */
+    public Fine accrue(Loan loan, LocalDate through) {
+        long days = ChronoUnit.DAYS.between(loan.getAccruedThrough(), through);
+        if (days <= 0) return null;
+        loan.setAccruedThrough(through);
+        return new Fine(loan, days * dailyFine, today());
+    }
+}
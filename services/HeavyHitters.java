@@ -0,0 +1,143 @@
+package services;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Approximate most-frequent keys of a stream, using the Space-Saving algorithm in bounded memory.
+ *
+ * At most capacity keys are tracked. An untracked key takes over the counter of the least frequent
+ * tracked one and inherits its count, which is remembered as that key's possible overcount (error).
+ * Every key whose true frequency exceeds total / capacity is guaranteed to be tracked.
+ * Counters are kept in buckets of equal count, ordered by count, so each offer is O(1).
+ */
+public class HeavyHitters<K> {
+
+    /**
+     * A tracked key. Its true count lies between getCount() - getError() and getCount().
+     */
+    public static class Entry<K> {
+        private final K key;
+        private final long count;
+        private final long error;
+
+        Entry(K key, long count, long error) {
+            this.key = key;
+            this.count = count;
+            this.error = error;
+        }
+
+        public K getKey() { return key; }
+        public long getCount() { return count; }
+        public long getError() { return error; }
+    }
+
+    private static class Counter<K> {
+        K key;
+        long error;
+        Bucket<K> bucket;
+        Counter<K> previous, next;
+    }
+
+    private static class Bucket<K> {
+        final long count;
+        Counter<K> first;
+        Bucket<K> previous, next;
+
+        Bucket(long count) {
+            this.count = count;
+        }
+    }
+
+    private final int capacity;
+    private final Map<K, Counter<K>> counters = new HashMap<>();
+    // Lowest and highest count buckets
+    private Bucket<K> lowest, highest;
+    private long total;
+
+    public HeavyHitters(int capacity) {
+        if (capacity < 1) throw new IllegalArgumentException("Capacity must be positive");
+        this.capacity = capacity;
+    }
+
+    public synchronized void offer(K key) {
+        total++;
+        Counter<K> counter = counters.get(key);
+        if (counter == null) {
+            if (counters.size() < capacity) {
+                counter = new Counter<>();
+                counter.key = key;
+                attach(counter, lowest != null && lowest.count == 1 ? lowest : insertBucket(1, null, lowest));
+                counters.put(key, counter);
+                return;
+            }
+            // Take over a counter of the least frequent key
+            counter = lowest.first;
+            counters.remove(counter.key);
+            counter.key = key;
+            counter.error = counter.bucket.count;
+            counters.put(key, counter);
+        }
+        increment(counter);
+    }
+
+    /**
+     * Returns up to n tracked keys, most frequent first.
+     */
+    public synchronized List<Entry<K>> top(int n) {
+        List<Entry<K>> top = new ArrayList<>();
+        for (Bucket<K> bucket = highest; bucket != null && top.size() < n; bucket = bucket.previous) {
+            for (Counter<K> counter = bucket.first; counter != null && top.size() < n; counter = counter.next) {
+                top.add(new Entry<>(counter.key, bucket.count, counter.error));
+            }
+        }
+        return top;
+    }
+
+    /**
+     * The number of keys offered so far.
+     */
+    public synchronized long getTotal() {
+        return total;
+    }
+
+    // --- Buckets ---
+
+    private void increment(Counter<K> counter) {
+        Bucket<K> from = counter.bucket;
+        long count = from.count + 1;
+        Bucket<K> to = from.next != null && from.next.count == count ? from.next : insertBucket(count, from, from.next);
+        detach(counter);
+        attach(counter, to);
+    }
+
+    private Bucket<K> insertBucket(long count, Bucket<K> previous, Bucket<K> next) {
+        Bucket<K> bucket = new Bucket<>(count);
+        bucket.previous = previous;
+        bucket.next = next;
+        if (previous != null) previous.next = bucket; else lowest = bucket;
+        if (next != null) next.previous = bucket; else highest = bucket;
+        return bucket;
+    }
+
+    private void attach(Counter<K> counter, Bucket<K> bucket) {
+        counter.bucket = bucket;
+        counter.previous = null;
+        counter.next = bucket.first;
+        if (bucket.first != null) bucket.first.previous = counter;
+        bucket.first = counter;
+    }
+
+    // Unlinks the counter from its bucket, dropping the bucket if it empties
+    private void detach(Counter<K> counter) {
+        Bucket<K> bucket = counter.bucket;
+        if (counter.previous != null) counter.previous.next = counter.next; else bucket.first = counter.next;
+        if (counter.next != null) counter.next.previous = counter.previous;
+        if (bucket.first == null) {
+            if (bucket.previous != null) bucket.previous.next = bucket.next; else lowest = bucket.next;
+            if (bucket.next != null) bucket.next.previous = bucket.previous; else highest = bucket.previous;
+        }
+    }
+}
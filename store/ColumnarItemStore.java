@@ -0,0 +1,346 @@
+package store;
+
+import models.*;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * A compact, column-oriented inventory for very large catalogs.
+ * Instead of one object per item with its own Strings and enum reference, each attribute lives
+ * in a primitive column indexed by row: numeric IDs in an int[], type tags and statuses in byte[]s,
+ * titles and ISBNs packed as UTF-8 bytes, and repeated values (authors, publications, issue dates)
+ * interned as dictionary codes. Book, Magazine and Article views are materialized only on access,
+ * as detached copies; status changes go through the store.
+ *
+ * Appends are serialized; lookups, status reads and scans are lock-free. A row becomes visible
+ * to readers once the published size covers it.
+ */
+public class ColumnarItemStore {
+
+    public static final byte BOOK = 0;
+    public static final byte MAGAZINE = 1;
+    public static final byte ARTICLE = 2;
+    // Type filter that matches every row
+    public static final byte ANY_TYPE = -1;
+
+    private static final String ID_PREFIX = "ITEM-";
+    private static final int NONE = -1;
+    private static final ItemStatus[] STATUSES = ItemStatus.values();
+
+    // Statuses are updated in place with CAS, so they live in fixed-size chunks that are never copied
+    private static final int CHUNK_SHIFT = 14;
+    private static final int CHUNK_SIZE = 1 << CHUNK_SHIFT;
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+    private static final VarHandle STATUS = MethodHandles.arrayElementVarHandle(byte[].class);
+    private static final VarHandle SLOT = MethodHandles.arrayElementVarHandle(int[].class);
+
+    private final StringDictionary dictionary = new StringDictionary();
+    private final PackedStringColumn titles = new PackedStringColumn();
+    private final PackedStringColumn isbns = new PackedStringColumn();
+    private int[] ids = new int[1024];
+    private byte[] types = new byte[1024];
+    // Dictionary codes: the author of books and articles, the issue date of magazines, the publication of articles
+    private int[] authors = new int[1024];
+    private int[] details = new int[1024];
+    private volatile byte[][] statusChunks = new byte[1][];
+
+    // Open-addressing ID index: slots[2i] holds the numeric ID plus one (zero marks an empty slot), slots[2i + 1] the row
+    private volatile int[] slots = new int[2 * 2048];
+    private volatile int size;
+
+    public static ColumnarItemStore of(Collection<? extends LibraryItem> items) {
+        ColumnarItemStore store = new ColumnarItemStore();
+        items.forEach(store::add);
+        return store;
+    }
+
+    // --- Appending ---
+
+    /**
+     * Copies the item into the store and returns its row, or -1 if an item with the same ID is already stored.
+     */
+    public int add(LibraryItem item) {
+        if (item instanceof Book) {
+            Book book = (Book) item;
+            return append(BOOK, book.getItemId(), book.getTitle(), book.getAuthor(), null, book.getIsbn(), book.getStatus());
+        } else if (item instanceof Magazine) {
+            Magazine magazine = (Magazine) item;
+            return append(MAGAZINE, magazine.getItemId(), magazine.getTitle(), null, magazine.getIssueDate(), null, magazine.getStatus());
+        } else if (item instanceof Article) {
+            Article article = (Article) item;
+            return append(ARTICLE, article.getItemId(), article.getTitle(), article.getAuthor(), article.getPublication(), null, article.getStatus());
+        }
+        throw new IllegalArgumentException("Unsupported item type " + item.getClass().getSimpleName());
+    }
+
+    /**
+     * Appends a record in the CSV layout of the given type without building an item object first.
+     */
+    public int addRecord(byte type, String[] fields) {
+        switch (type) {
+            case BOOK:
+                return append(BOOK, fields[0], fields[1], fields[2], null, fields[3], ItemStatus.valueOf(fields[4]));
+            case MAGAZINE:
+                return append(MAGAZINE, fields[0], fields[1], null, fields[2], null, ItemStatus.valueOf(fields[3]));
+            case ARTICLE:
+                return append(ARTICLE, fields[0], fields[1], fields[2], fields[3], null, ItemStatus.valueOf(fields[4]));
+            default:
+                throw new IllegalArgumentException("Unknown item type " + type);
+        }
+    }
+
+    private synchronized int append(byte type, String itemId, String title, String author, String detail, String isbn, ItemStatus status) {
+        int id = parseId(itemId);
+        if (rowOf(id) != NONE) return NONE;
+
+        int row = size;
+        if (row == ids.length) {
+            int capacity = row * 2;
+            ids = Arrays.copyOf(ids, capacity);
+            types = Arrays.copyOf(types, capacity);
+            authors = Arrays.copyOf(authors, capacity);
+            details = Arrays.copyOf(details, capacity);
+        }
+        ids[row] = id;
+        types[row] = type;
+        authors[row] = author == null ? NONE : dictionary.encode(author);
+        details[row] = detail == null ? NONE : dictionary.encode(detail);
+        titles.add(title);
+        isbns.add(isbn == null ? "" : isbn);
+        statusChunk(row)[row & CHUNK_MASK] = (byte) status.ordinal();
+        // Publishing the size makes every column write above visible to readers; the ID is indexed
+        // only afterwards, so a reader that finds the row by ID always sees it within the size
+        size = row + 1;
+        index(id, row);
+        return row;
+    }
+
+    private byte[] statusChunk(int row) {
+        int chunk = row >>> CHUNK_SHIFT;
+        byte[][] chunks = statusChunks;
+        if (chunk == chunks.length) {
+            chunks = Arrays.copyOf(chunks, chunks.length * 2);
+        }
+        if (chunks[chunk] == null) {
+            chunks[chunk] = new byte[CHUNK_SIZE];
+            statusChunks = chunks;
+        }
+        return chunks[chunk];
+    }
+
+    private void index(int id, int row) {
+        int[] table = slots;
+        // Keep the table at most half full; a grown table is filled completely before it is published
+        if (2 * (row + 1) > table.length / 2) {
+            int[] grown = new int[table.length * 2];
+            for (int i = 0; i < table.length; i += 2) {
+                if (table[i] != 0) insert(grown, table[i] - 1, table[i + 1]);
+            }
+            slots = grown;
+            table = grown;
+        }
+        insert(table, id, row);
+    }
+
+    private static void insert(int[] table, int id, int row) {
+        int mask = table.length / 2 - 1;
+        for (int slot = hash(id) & mask; ; slot = (slot + 1) & mask) {
+            if (table[2 * slot] == 0) {
+                table[2 * slot + 1] = row;
+                // Release the key last, so a reader that sees it also sees the row
+                SLOT.setRelease(table, 2 * slot, id + 1);
+                return;
+            }
+        }
+    }
+
+    // --- Lookup ---
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the row holding the given item ID, or -1 if it is not stored.
+     */
+    public int rowOf(String itemId) {
+        int id = tryParseId(itemId);
+        return id == NONE ? NONE : rowOf(id);
+    }
+
+    private int rowOf(int id) {
+        int[] table = slots;
+        int mask = table.length / 2 - 1;
+        for (int slot = hash(id) & mask; ; slot = (slot + 1) & mask) {
+            int key = (int) SLOT.getAcquire(table, 2 * slot);
+            if (key == 0) return NONE;
+            if (key == id + 1) return table[2 * slot + 1];
+        }
+    }
+
+    /**
+     * Materializes the item with the given ID, or returns null if it is not stored.
+     */
+    public LibraryItem get(String itemId) {
+        int row = rowOf(itemId);
+        return row == NONE ? null : materialize(row);
+    }
+
+    /**
+     * Builds a detached Book, Magazine or Article from the row's columns.
+     */
+    public LibraryItem materialize(int row) {
+        checkRow(row);
+        String id = itemIdAt(row);
+        String status = statusAt(row).name();
+        switch (types[row]) {
+            case BOOK:
+                return Book.fromCsvFields(new String[] { id, titles.get(row), dictionary.decode(authors[row]), isbns.get(row), status });
+            case MAGAZINE:
+                return Magazine.fromCsvFields(new String[] { id, titles.get(row), dictionary.decode(details[row]), status });
+            default:
+                return Article.fromCsvFields(new String[] { id, titles.get(row), dictionary.decode(authors[row]), dictionary.decode(details[row]), status });
+        }
+    }
+
+    public String itemIdAt(int row) {
+        checkRow(row);
+        return formatId(ids[row]);
+    }
+
+    public byte typeAt(int row) {
+        checkRow(row);
+        return types[row];
+    }
+
+    public String titleAt(int row) {
+        checkRow(row);
+        return titles.get(row);
+    }
+
+    public ItemStatus statusAt(int row) {
+        checkRow(row);
+        return STATUSES[(byte) STATUS.getVolatile(statusChunks[row >>> CHUNK_SHIFT], row & CHUNK_MASK)];
+    }
+
+    private void checkRow(int row) {
+        if (row < 0 || row >= size) throw new IndexOutOfBoundsException("Row " + row + " of " + size);
+    }
+
+    // --- Status Updates ---
+
+    public boolean setStatus(String itemId, ItemStatus status) {
+        int row = rowOf(itemId);
+        if (row == NONE) return false;
+        STATUS.setVolatile(statusChunks[row >>> CHUNK_SHIFT], row & CHUNK_MASK, (byte) status.ordinal());
+        return true;
+    }
+
+    /**
+     * Atomically moves the item to a new status if it is currently in the expected one.
+     * Returns false if the item is not stored or another update got there first.
+     */
+    public boolean compareAndSetStatus(String itemId, ItemStatus expected, ItemStatus update) {
+        int row = rowOf(itemId);
+        if (row == NONE) return false;
+        return STATUS.compareAndSet(statusChunks[row >>> CHUNK_SHIFT], row & CHUNK_MASK, (byte) expected.ordinal(), (byte) update.ordinal());
+    }
+
+    // --- Scans ---
+
+    /**
+     * Counts the rows in the given status, optionally restricted to one type, by scanning the status and type columns.
+     */
+    public int count(ItemStatus status, byte type) {
+        byte wanted = (byte) status.ordinal();
+        // Read the size first: only that read makes the columns it covers visible
+        int rows = size;
+        byte[][] chunks = statusChunks;
+        byte[] rowTypes = types;
+        int count = 0;
+        for (int base = 0; base < rows; base += CHUNK_SIZE) {
+            byte[] chunk = chunks[base >>> CHUNK_SHIFT];
+            int end = Math.min(CHUNK_SIZE, rows - base);
+            if (type == ANY_TYPE) {
+                for (int i = 0; i < end; i++) {
+                    if (chunk[i] == wanted) count++;
+                }
+            } else {
+                for (int i = 0; i < end; i++) {
+                    if (chunk[i] == wanted && rowTypes[base + i] == type) count++;
+                }
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Returns the first row at or after fromRow in the given status and type, or -1 if there is none.
+     * Callers page through matches by passing the previous result plus one.
+     */
+    public int nextRow(int fromRow, ItemStatus status, byte type) {
+        byte wanted = (byte) status.ordinal();
+        int rows = size;
+        byte[][] chunks = statusChunks;
+        byte[] rowTypes = types;
+        for (int row = Math.max(0, fromRow); row < rows; row++) {
+            if (chunks[row >>> CHUNK_SHIFT][row & CHUNK_MASK] == wanted && (type == ANY_TYPE || rowTypes[row] == type)) {
+                return row;
+            }
+        }
+        return NONE;
+    }
+
+    /**
+     * An estimate of the store's heap footprint in bytes, counting array capacity and the dictionary's distinct values.
+     */
+    public long estimatedHeapBytes() {
+        long bytes = 4L * ids.length + types.length + 4L * authors.length + 4L * details.length;
+        for (byte[] chunk : statusChunks) {
+            if (chunk != null) bytes += chunk.length;
+        }
+        bytes += 4L * slots.length + titles.heapBytes() + isbns.heapBytes();
+        for (String value : dictionary.values()) {
+            // String and backing array headers plus a map entry and boxed code
+            bytes += 40 + value.length() + 48;
+        }
+        return bytes;
+    }
+
+    // --- IDs ---
+
+    private static int hash(int id) {
+        int h = id * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    private static int parseId(String itemId) {
+        int id = tryParseId(itemId);
+        if (id == NONE) throw new IllegalArgumentException("Item ID '" + itemId + "' is not in the ITEM-nnn form");
+        return id;
+    }
+
+    /**
+     * Parses the number of a canonical "ITEM-%03d" ID, or returns -1 if the ID would not format back to itself.
+     */
+    private static int tryParseId(String itemId) {
+        if (itemId == null || !itemId.startsWith(ID_PREFIX)) return NONE;
+        int digits = itemId.length() - ID_PREFIX.length();
+        if (digits < 3 || digits > 9 || (digits > 3 && itemId.charAt(ID_PREFIX.length()) == '0')) return NONE;
+        int id = 0;
+        for (int i = ID_PREFIX.length(); i < itemId.length(); i++) {
+            char c = itemId.charAt(i);
+            if (c < '0' || c > '9') return NONE;
+            id = id * 10 + (c - '0');
+        }
+        return id;
+    }
+
+    private static String formatId(int id) {
+        if (id < 10) return ID_PREFIX + "00" + id;
+        if (id < 100) return ID_PREFIX + "0" + id;
+        return ID_PREFIX + id;
+    }
+}
@@ -0,0 +1,40 @@
+package store;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * A column of mostly unique strings (titles, ISBNs) packed as UTF-8 into one byte array,
+ * with an offset per row. Saves the object header, array header and length fields that
+ * a separate String would cost for every row.
+ * Writers are serialized by the owning store.
+ */
+class PackedStringColumn {
+
+    private byte[] data = new byte[1024];
+    private int[] offsets = new int[65];
+    private int rows;
+
+    void add(String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        int start = offsets[rows];
+        if (start + bytes.length > data.length) {
+            data = Arrays.copyOf(data, Math.max(data.length * 2, start + bytes.length));
+        }
+        System.arraycopy(bytes, 0, data, start, bytes.length);
+        if (rows + 2 > offsets.length) {
+            offsets = Arrays.copyOf(offsets, offsets.length * 2);
+        }
+        offsets[rows + 1] = start + bytes.length;
+        rows++;
+    }
+
+    String get(int row) {
+        int start = offsets[row];
+        return new String(data, start, offsets[row + 1] - start, StandardCharsets.UTF_8);
+    }
+
+    long heapBytes() {
+        return data.length + 4L * offsets.length;
+    }
+}
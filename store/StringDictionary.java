@@ -0,0 +1,45 @@
+package store;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Maps repeated strings (authors, publications, issue dates) to small integer codes,
+ * so each distinct value is stored once no matter how many items share it.
+ * Writers are serialized by the owning store; readers only look up codes already published.
+ */
+class StringDictionary {
+
+    private final Map<String, Integer> codes = new HashMap<>();
+    private String[] values = new String[64];
+    private int size;
+
+    int encode(String value) {
+        Integer code = codes.get(value);
+        if (code != null) return code;
+        if (size == values.length) {
+            String[] grown = new String[size * 2];
+            System.arraycopy(values, 0, grown, 0, size);
+            values = grown;
+        }
+        values[size] = value;
+        codes.put(value, size);
+        return size++;
+    }
+
+    String decode(int code) {
+        return values[code];
+    }
+
+    int size() {
+        return size;
+    }
+
+    List<String> values() {
+        List<String> all = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) all.add(values[i]);
+        return all;
+    }
+}
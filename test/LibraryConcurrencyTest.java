@@ -0,0 +1,157 @@
+import data.DataManager;
+import models.*;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Stress test of the Library's concurrent loan paths: many threads borrow and return a small set of
+ * items, singly and in batches, so every item is contended. An item must never be loaned twice,
+ * the BORROWED count must match the open loans, and no member may exceed the loan limit.
+ */
+class LibraryConcurrencyTest {
+
+    private static final int THREADS = 16;
+    private static final int OPERATIONS_PER_THREAD = 2000;
+    private static final int ITEMS = 12;
+    private static final int MEMBERS = 6;
+    private static final int LOAN_LIMIT = 3;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void itemsAreNeverDoubleLoaned() throws Exception {
+        Files.writeString(directory.resolve("loan-limits.properties"), "default=" + LOAN_LIMIT + "\n");
+        Library library = newLibrary();
+        List<String> itemIds = new ArrayList<>();
+        List<String> memberIds = new ArrayList<>();
+        for (int i = 0; i < ITEMS; i++) {
+            Book book = new Book("Title " + i, "Author " + i, String.format("978%010d", i));
+            library.addLibraryItem(book);
+            itemIds.add(book.getItemId());
+        }
+        for (int i = 0; i < MEMBERS; i++) {
+            Member member = new Member("Member " + i, "pw");
+            library.registerMember(member);
+            memberIds.add(member.getMemberId());
+        }
+
+        // Loans each item has according to the test: a checkout raising it above one is a double loan
+        AtomicIntegerArray holders = new AtomicIntegerArray(ITEMS);
+        // Counted after a loan opens and uncounted before its return, so never above the member's real count
+        AtomicIntegerArray memberLoans = new AtomicIntegerArray(MEMBERS);
+        Queue<String> violations = new ConcurrentLinkedQueue<>();
+        List<List<LoanRequest>> held = new ArrayList<>();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        for (int t = 0; t < THREADS; t++) {
+            List<LoanRequest> mine = new ArrayList<>();
+            held.add(mine);
+            Random random = new Random(t);
+            pool.execute(() -> {
+                try {
+                    start.await();
+                    for (int op = 0; op < OPERATIONS_PER_THREAD; op++) {
+                        int action = random.nextInt(10);
+                        if (action < 5 || mine.isEmpty()) {
+                            String memberId = memberIds.get(random.nextInt(MEMBERS));
+                            List<LoanRequest> requests = new ArrayList<>();
+                            int count = action == 0 ? 2 : 1;
+                            for (int i = 0; i < count; i++) {
+                                requests.add(new LoanRequest(memberId, itemIds.get(random.nextInt(ITEMS))));
+                            }
+                            List<TransactionResult> results = count == 1
+                                ? List.of(library.checkout(memberId, requests.get(0).getItemId()))
+                                : library.borrowItems(requests, random.nextBoolean());
+                            for (TransactionResult result : results) {
+                                if (!result.isSuccess()) continue;
+                                String itemId = result.getLoan().getItem().getItemId();
+                                if (holders.incrementAndGet(itemIds.indexOf(itemId)) > 1) {
+                                    violations.add(itemId + " loaned twice");
+                                }
+                                mine.add(new LoanRequest(memberId, itemId));
+                                int loans = memberLoans.incrementAndGet(memberIds.indexOf(memberId));
+                                if (loans > LOAN_LIMIT) {
+                                    violations.add(memberId + " holds " + loans + " loans, over the limit");
+                                }
+                            }
+                        } else {
+                            // Released before the return, so a checkout that follows it cannot look like a double loan
+                            LoanRequest loan = mine.remove(random.nextInt(mine.size()));
+                            String itemId = loan.getItemId();
+                            holders.decrementAndGet(itemIds.indexOf(itemId));
+                            memberLoans.decrementAndGet(memberIds.indexOf(loan.getMemberId()));
+                            TransactionResult result = action == 9
+                                ? library.returnItems(List.of(loan), true).get(0)
+                                : library.checkin(itemId);
+                            if (!result.isSuccess()) {
+                                violations.add("return of " + itemId + " failed: " + result.getMessage());
+                            }
+                        }
+                    }
+                } catch (Exception e) {
+                    violations.add(e.toString());
+                }
+            });
+        }
+        start.countDown();
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(2, TimeUnit.MINUTES), "workers did not finish");
+        assertTrue(violations.isEmpty(), () -> String.join("\n", violations));
+
+        Set<String> expected = new HashSet<>();
+        held.forEach(loans -> loans.forEach(loan -> expected.add(loan.getItemId())));
+        assertLoansConsistent(library, itemIds, memberIds, expected);
+
+        // The journal must bring back exactly the same loans
+        library.shutdown();
+        Library reopened = newLibrary();
+        assertLoansConsistent(reopened, itemIds, memberIds, expected);
+        reopened.shutdown();
+    }
+
+    private Library newLibrary() throws IOException {
+        return new Library(new DataManager(directory.toString()), Clock.systemDefaultZone());
+    }
+
+    private static void assertLoansConsistent(Library library, List<String> itemIds, List<String> memberIds, Set<String> expected) {
+        Map<String, Integer> loansPerItem = new HashMap<>();
+        for (Loan loan : library.getActiveLoans()) {
+            loansPerItem.merge(loan.getItem().getItemId(), 1, Integer::sum);
+        }
+        loansPerItem.forEach((itemId, count) -> assertEquals(1, count, itemId + " has several active loans"));
+        assertEquals(expected, loansPerItem.keySet(), "active loans differ from the successful checkouts");
+        assertEquals(loansPerItem.size(), library.countItems(null, ItemStatus.BORROWED), "BORROWED count differs from open loans");
+        for (String itemId : itemIds) {
+            ItemStatus status = library.findItemById(itemId).getStatus();
+            assertEquals(expected.contains(itemId) ? ItemStatus.BORROWED : ItemStatus.AVAILABLE, status, itemId + " has the wrong status");
+        }
+        int memberLoans = 0;
+        for (String memberId : memberIds) {
+            int count = library.getMemberLoans(memberId).size();
+            assertTrue(count <= LOAN_LIMIT, memberId + " holds " + count + " loans, over the limit");
+            memberLoans += count;
+        }
+        assertEquals(loansPerItem.size(), memberLoans, "member loans differ from item loans");
+    }
+}
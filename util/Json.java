@@ -0,0 +1,231 @@
+package util;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Minimal JSON support for the HTTP API: an append-only writer and a parser for
+ * flat request objects whose values are strings, numbers or booleans.
+ */
+public final class Json {
+
+    private Json() {}
+
+    // --- Writing ---
+
+    public static class Writer {
+        private final StringBuilder out = new StringBuilder();
+        private boolean needsComma;
+
+        public Writer beginObject() {
+            return beginObject(null);
+        }
+
+        public Writer beginObject(String name) {
+            name(name);
+            out.append('{');
+            needsComma = false;
+            return this;
+        }
+
+        public Writer endObject() {
+            out.append('}');
+            needsComma = true;
+            return this;
+        }
+
+        public Writer beginArray(String name) {
+            name(name);
+            out.append('[');
+            needsComma = false;
+            return this;
+        }
+
+        public Writer endArray() {
+            out.append(']');
+            needsComma = true;
+            return this;
+        }
+
+        public Writer field(String name, String value) {
+            name(name);
+            if (value == null) {
+                out.append("null");
+            } else {
+                quote(out, value);
+            }
+            needsComma = true;
+            return this;
+        }
+
+        public Writer field(String name, long value) {
+            name(name);
+            out.append(value);
+            needsComma = true;
+            return this;
+        }
+
+        public Writer field(String name, double value) {
+            name(name);
+            out.append(value);
+            needsComma = true;
+            return this;
+        }
+
+        public Writer field(String name, boolean value) {
+            name(name);
+            out.append(value);
+            needsComma = true;
+            return this;
+        }
+
+        // Writes the separator and, inside objects, the member name
+        private void name(String name) {
+            separate();
+            if (name != null) {
+                quote(out, name);
+                out.append(':');
+            }
+        }
+
+        private void separate() {
+            if (needsComma) out.append(',');
+        }
+
+        @Override
+        public String toString() {
+            return out.toString();
+        }
+    }
+
+    private static void quote(StringBuilder out, String value) {
+        out.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"': out.append("\\\""); break;
+                case '\\': out.append("\\\\"); break;
+                case '\n': out.append("\\n"); break;
+                case '\r': out.append("\\r"); break;
+                case '\t': out.append("\\t"); break;
+                default:
+                    if (c < 0x20) {
+                        out.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        out.append(c);
+                    }
+            }
+        }
+        out.append('"');
+    }
+
+    // --- Parsing ---
+
+    /**
+     * Parses a flat JSON object into a map of its values rendered as strings.
+     * Throws IllegalArgumentException for anything else, including nested objects and arrays.
+     */
+    public static Map<String, String> parseObject(String text) {
+        Parser parser = new Parser(text);
+        Map<String, String> values = parser.object();
+        parser.skipWhitespace();
+        if (!parser.atEnd()) throw new IllegalArgumentException("Unexpected content after JSON object");
+        return values;
+    }
+
+    private static class Parser {
+        private final String text;
+        private int pos;
+
+        Parser(String text) {
+            this.text = text;
+        }
+
+        Map<String, String> object() {
+            Map<String, String> values = new LinkedHashMap<>();
+            expect('{');
+            skipWhitespace();
+            if (peek() == '}') {
+                pos++;
+                return values;
+            }
+            while (true) {
+                skipWhitespace();
+                String name = string();
+                skipWhitespace();
+                expect(':');
+                skipWhitespace();
+                values.put(name, value());
+                skipWhitespace();
+                char c = next();
+                if (c == '}') return values;
+                if (c != ',') throw error("Expected ',' or '}'");
+            }
+        }
+
+        private String value() {
+            char c = peek();
+            if (c == '"') return string();
+            int start = pos;
+            while (!atEnd() && ",}] \t\r\n".indexOf(peek()) < 0) pos++;
+            String literal = text.substring(start, pos);
+            if (literal.equals("null")) return null;
+            if (literal.isEmpty() || c == '{' || c == '[') throw error("Unsupported value");
+            return literal;
+        }
+
+        private String string() {
+            expect('"');
+            StringBuilder value = new StringBuilder();
+            while (true) {
+                char c = next();
+                if (c == '"') return value.toString();
+                if (c != '\\') {
+                    value.append(c);
+                    continue;
+                }
+                char escaped = next();
+                switch (escaped) {
+                    case 'n': value.append('\n'); break;
+                    case 'r': value.append('\r'); break;
+                    case 't': value.append('\t'); break;
+                    case 'b': value.append('\b'); break;
+                    case 'f': value.append('\f'); break;
+                    case 'u':
+                        if (pos + 4 > text.length()) throw error("Truncated escape");
+                        value.append((char) Integer.parseInt(text.substring(pos, pos + 4), 16));
+                        pos += 4;
+                        break;
+                    default: value.append(escaped);
+                }
+            }
+        }
+
+        void skipWhitespace() {
+            while (!atEnd() && Character.isWhitespace(peek())) pos++;
+        }
+
+        boolean atEnd() {
+            return pos >= text.length();
+        }
+
+        private char peek() {
+            if (atEnd()) throw error("Unexpected end of input");
+            return text.charAt(pos);
+        }
+
+        private char next() {
+            char c = peek();
+            pos++;
+            return c;
+        }
+
+        private void expect(char expected) {
+            if (next() != expected) throw error("Expected '" + expected + "'");
+        }
+
+        private IllegalArgumentException error(String message) {
+            return new IllegalArgumentException(message + " at position " + pos);
+        }
+    }
+}
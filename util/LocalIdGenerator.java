@@ -0,0 +1,26 @@
+package util;
+
+import interfaces.IdGenerator;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * An in-process counter. Unique within one JVM only; processes sharing a data directory need leased ranges.
+ */
+public class LocalIdGenerator implements IdGenerator {
+
+    private final AtomicInteger nextId;
+
+    public LocalIdGenerator(int first) {
+        this.nextId = new AtomicInteger(first);
+    }
+
+    @Override
+    public int next() {
+        return nextId.getAndIncrement();
+    }
+
+    @Override
+    public int reserve(int count) {
+        return nextId.getAndAdd(count);
+    }
+}
@@ -0,0 +1,50 @@
+package util;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A fixed pool of locks selected by key hash.
+ * Operations on the same key always share a lock, while operations on different keys
+ * only contend when their keys happen to fall on the same stripe.
+ */
+public class StripedLocks {
+
+    private final ReentrantLock[] locks;
+    private final int mask;
+
+    public StripedLocks(int stripes) {
+        int size = Integer.highestOneBit(Math.max(1, stripes - 1)) << 1;
+        this.locks = new ReentrantLock[size];
+        for (int i = 0; i < size; i++) {
+            locks[i] = new ReentrantLock();
+        }
+        this.mask = size - 1;
+    }
+
+    public Lock get(String key) {
+        return locks[stripeOf(key)];
+    }
+
+    /**
+     * Returns the distinct locks covering all keys, in a global order.
+     * Acquiring them in the returned order cannot deadlock with another caller doing the same.
+     */
+    public List<Lock> getAll(Collection<String> keys) {
+        TreeMap<Integer, Lock> ordered = new TreeMap<>();
+        for (String key : keys) {
+            int stripe = stripeOf(key);
+            ordered.put(stripe, locks[stripe]);
+        }
+        return new ArrayList<>(ordered.values());
+    }
+
+    public int stripeOf(String key) {
+        int h = key.hashCode();
+        return (h ^ (h >>> 16)) & mask;
+    }
+}